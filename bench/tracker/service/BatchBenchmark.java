@@ -0,0 +1,72 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Создание SIZE подзадач одного эпика пакетом ({@link TaskManager#createSubtasks}) и по одной.
+ * Для FILE каждая одиночная операция перезаписывает снимок целиком, пакет - один раз,
+ * поэтому одиночное создание измеряется однократными запусками.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BatchBenchmark {
+    private static final int SIZE = 10_000;
+
+    @Param({"MEMORY", "FILE"})
+    public String storage;
+
+    private File snapshot;
+    private TaskManager manager;
+    private int epicId;
+    private List<Subtask> drafts;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        if ("FILE".equals(storage)) {
+            snapshot = File.createTempFile("tracker-bench", ".csv");
+            manager = new FileBackedTaskManager(snapshot);
+        } else {
+            manager = new InMemoryTaskManager();
+        }
+        epicId = manager.createEpic("Эпик", "Описание").getId();
+        drafts = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            drafts.add(new Subtask(0, "Подзадача " + i, "Описание", Status.NEW, epicId,
+                    Duration.ofMinutes(30), BenchmarkData.slot(i)));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        if (snapshot != null) {
+            snapshot.delete();
+        }
+    }
+
+    @Benchmark
+    public List<Subtask> batch() {
+        return manager.createSubtasks(drafts);
+    }
+
+    @Benchmark
+    public TaskManager individual() {
+        for (Subtask draft : drafts) {
+            manager.createSubtask(draft.getName(), draft.getDescription(), draft.getStatus(), epicId,
+                    draft.getDuration(), draft.getStartTime());
+        }
+        return manager;
+    }
+}
@@ -0,0 +1,68 @@
+package tracker.service;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+/**
+ * Генерация тестовых данных для бенчмарков.
+ */
+final class BenchmarkData {
+    static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String HEADER = "id,type,name,status,description,duration,startTime,epic\n";
+    private static final String[] STATUSES = {"NEW", "IN_PROGRESS", "DONE"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Записывает CSV-снимок: на каждые 100 строк один эпик, 60 подзадач и 39 задач.
+     * Все задачи и подзадачи идут непересекающимися получасовыми интервалами по одному в час.
+     *
+     * @param file  файл снимка
+     * @param lines количество строк с сущностями
+     */
+    static void writeCsvSnapshot(File file, int lines) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            int epicId = 0;
+            for (int id = 1; id <= lines; id++) {
+                int position = (id - 1) % 100;
+                String status = STATUSES[id % STATUSES.length];
+                if (position == 0) {
+                    epicId = id;
+                    writer.write(id + ",EPIC,Эпик " + id + ",NEW,Описание эпика " + id + ",,,\n");
+                } else if (position <= 60) {
+                    writer.write(id + ",SUBTASK,Подзадача " + id + "," + status + ",Описание подзадачи " + id
+                            + ",30," + slot(id) + "," + epicId + "\n");
+                } else {
+                    writer.write(id + ",TASK,Задача " + id + "," + status + ",Описание задачи " + id
+                            + ",30," + slot(id) + ",\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает CSV-снимок заданного размера во временном каталоге, создавая его при первом обращении.
+     */
+    static File cachedCsvSnapshot(int lines) throws IOException {
+        File file = new File(System.getProperty("java.io.tmpdir"), "tracker-bench-" + lines + ".csv");
+        if (!file.exists()) {
+            File temp = new File(file.getPath() + ".tmp");
+            writeCsvSnapshot(temp, lines);
+            Files.move(temp.toPath(), file.toPath());
+        }
+        return file;
+    }
+
+    /**
+     * @return начало часового слота с заданным номером
+     */
+    static LocalDateTime slot(int index) {
+        return BASE_TIME.plusHours(index);
+    }
+}
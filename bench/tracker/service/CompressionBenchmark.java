@@ -0,0 +1,73 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Status;
+import tracker.http.HttpTaskServer;
+import tracker.http.handler.ResponseCompression;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный цикл GET /tasks с SIZE задачами через HTTP-сервер на loopback: без сжатия, gzip и deflate
+ * на разных уровнях. Сжатый ответ скачивается, но не распаковывается - так измеряются затраты сервера
+ * и передачи. Размер тела выводится в конце прогона: на loopback пропускная способность сети не
+ * ограничена, и выигрыш по времени передачи реальной сети оценивается по нему.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CompressionBenchmark {
+    private static final int SIZE = 50_000;
+    private static final int PORT = 8097;
+
+    @Param({"identity", "gzip", "deflate"})
+    public String encoding;
+
+    @Param({"1", "6"})
+    public int level;
+
+    private HttpTaskServer server;
+    private HttpClient client;
+    private HttpRequest request;
+    private long bodyBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TaskManager manager = new ConcurrentTaskManager();
+        for (int i = 1; i <= SIZE; i++) {
+            manager.createTask("Задача " + i, "Описание задачи " + i, Status.IN_PROGRESS,
+                    Duration.ofMinutes(30), BenchmarkData.slot(i));
+        }
+        server = new HttpTaskServer(manager, PORT, 0, HttpTaskServer.ExecutorMode.PLATFORM);
+        server.setCompression(new ResponseCompression(ResponseCompression.DEFAULT_THRESHOLD, level));
+        server.start();
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + PORT + "/tasks"))
+                .header("Accept-Encoding", encoding)
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+        System.out.println("Размер ответа (" + encoding + ", уровень " + level + "): " + bodyBytes + " байт");
+    }
+
+    @Benchmark
+    public int getTasks() throws IOException, InterruptedException {
+        byte[] body = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+        bodyBytes = body.length;
+        return body.length;
+    }
+}
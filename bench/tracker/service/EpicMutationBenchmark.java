@@ -0,0 +1,60 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Epic;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Изменение подзадач большого эпика. При инкрементальных агрегатах время операции
+ * не должно заметно зависеть от количества подзадач.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpicMutationBenchmark {
+    private static final Duration DURATION = Duration.ofMinutes(30);
+
+    @Param({"1000", "50000"})
+    public int subtasks;
+
+    private InMemoryTaskManager manager;
+    private Epic epic;
+    private int[] subtaskIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        epic = manager.createEpic("Эпик", "Описание");
+        subtaskIds = new int[subtasks];
+        for (int i = 0; i < subtasks; i++) {
+            subtaskIds[i] = manager.createSubtask("Подзадача " + i, "Описание", Status.NEW, epic.getId(),
+                    DURATION, BenchmarkData.slot(i)).getId();
+        }
+    }
+
+    @Benchmark
+    public Status updateSubtaskStatus() {
+        cursor = (cursor + 7919) % subtasks;
+        Subtask current = manager.peekSubtask(subtaskIds[cursor]);
+        Status status = current.getStatus() == Status.DONE ? Status.NEW : Status.DONE;
+        manager.updateSubtask(new Subtask(current.getId(), current.getName(), current.getDescription(), status,
+                epic.getId(), DURATION, BenchmarkData.slot(cursor)));
+        return epic.getStatus();
+    }
+
+    @Benchmark
+    public int createAndDeleteSubtask() {
+        Subtask subtask = manager.createSubtask("Подзадача", "Описание", Status.IN_PROGRESS, epic.getId(),
+                DURATION, BenchmarkData.slot(subtasks + 1));
+        manager.deleteSubtask(subtask.getId());
+        return subtask.getId();
+    }
+}
@@ -0,0 +1,64 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.http.HttpTaskServer;
+import tracker.util.AsyncLog;
+import tracker.util.LogLevel;
+import tracker.util.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность POST /epics через HTTP-сервер на loopback в 4 клиентских потока
+ * при разных уровнях журнала. На уровне DEBUG каждый запрос пишет в журнал, на INFO отладочные
+ * сообщения отсекаются проверкой уровня. Вывод журнала лучше перенаправить в файл, чтобы не
+ * измерять скорость терминала. Без sun.net.httpserver.nodelay заголовки и тело ответа уходят
+ * отдельными сегментами и каждый запрос ждёт отложенного ACK (около 40 мс), что скрывает всё остальное.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dsun.net.httpserver.nodelay=true"})
+@Threads(4)
+public class EpicPostBenchmark {
+    private static final Logger LOG = Logger.getLogger(EpicPostBenchmark.class);
+
+    @Param({"INFO", "DEBUG"})
+    public LogLevel level;
+
+    private HttpTaskServer server;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        AsyncLog.getDefault().setLevel(level);
+        server = new HttpTaskServer(new ConcurrentTaskManager(), 0, 0, HttpTaskServer.ExecutorMode.PLATFORM);
+        server.start();
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getPort() + "/epics"))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"name\":\"Эпик\",\"description\":\"Описание эпика для замера журнала\"}"))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+        LOG.info("Отброшено сообщений журнала: {}", AsyncLog.getDefault().getDropped());
+        AsyncLog.getDefault().flush();
+    }
+
+    @Benchmark
+    public int postEpic() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
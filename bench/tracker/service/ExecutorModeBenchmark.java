@@ -0,0 +1,70 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Status;
+import tracker.http.HttpTaskServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /tasks от CLIENTS одновременных клиентов в разных режимах выполнения сервера.
+ * Одна операция - пачка запросов, отправленных разом; её время равно задержке самого медленного
+ * клиента, поэтому перцентили SampleTime показывают хвост задержек под нагрузкой.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ExecutorModeBenchmark {
+    private static final int CLIENTS = 500;
+
+    @Param({"DISPATCHER", "VIRTUAL", "PLATFORM"})
+    public HttpTaskServer.ExecutorMode mode;
+
+    private HttpTaskServer server;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TaskManager manager = Managers.getConcurrent();
+        for (int i = 0; i < 200; i++) {
+            manager.createTask("Task " + i, "Description", Status.NEW, null, null);
+        }
+        server = new HttpTaskServer(manager, 0, CLIENTS, mode);
+        server.start();
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public int burst() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<HttpResponse<Void>>[] responses = new CompletableFuture[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,59 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Status;
+import tracker.entity.Task;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Память и скорость истории просмотров.
+ * {@link #fill} заполняет новую историю ENTRIES различными задачами; с {@code -prof gc}
+ * метрика gc.alloc.rate.norm показывает байты на одну запись, включая рост массивов и индекса.
+ * {@link #viewBounded} - установившийся режим ограниченной истории, где каждое добавление вытесняет запись.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HistoryBenchmark {
+    private static final int ENTRIES = 1_000_000;
+
+    @Param({"1000", "100000"})
+    public int capacity;
+
+    private Task[] views;
+    private HistoryManager bounded;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        views = new Task[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            views[i] = new Task(i + 1, "Задача", "Описание", Status.NEW, null, null);
+        }
+        bounded = Managers.getDefaultHistory(capacity);
+        for (int i = 0; i < capacity; i++) {
+            bounded.add(views[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public HistoryManager fill() {
+        HistoryManager history = Managers.getDefaultHistory();
+        for (Task view : views) {
+            history.add(view);
+        }
+        return history;
+    }
+
+    @Benchmark
+    public HistoryManager viewBounded() {
+        cursor = (cursor + 7919) % ENTRIES;
+        bounded.add(views[cursor]);
+        return bounded;
+    }
+}
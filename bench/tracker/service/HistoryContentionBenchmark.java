@@ -0,0 +1,103 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Status;
+import tracker.entity.Task;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конкурентные просмотры: {@link ConcurrentHistoryManager} против истории под общим монитором
+ * (так история была защищена до появления полосатых буферов) при 1-32 потоках.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryContentionBenchmark {
+    private static final int TASKS = 10_000;
+
+    public enum Implementation { SYNCHRONIZED, STRIPED }
+
+    @Param({"SYNCHRONIZED", "STRIPED"})
+    public Implementation implementation;
+
+    private Task[] views;
+    private HistoryManager history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        views = new Task[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            views[i] = new Task(i + 1, "Задача", "Описание", Status.NEW, null, null);
+        }
+        history = implementation == Implementation.STRIPED
+                ? new ConcurrentHistoryManager(Managers.getDefaultHistory())
+                : new SynchronizedHistory(Managers.getDefaultHistory());
+    }
+
+    private HistoryManager view() {
+        history.add(views[ThreadLocalRandom.current().nextInt(TASKS)]);
+        return history;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public HistoryManager add1() {
+        return view();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public HistoryManager add4() {
+        return view();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public HistoryManager add8() {
+        return view();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public HistoryManager add16() {
+        return view();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public HistoryManager add32() {
+        return view();
+    }
+
+    /**
+     * История под общим монитором - базовый вариант для сравнения.
+     */
+    private static class SynchronizedHistory implements HistoryManager {
+        private final HistoryManager delegate;
+
+        SynchronizedHistory(HistoryManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void add(Task task) {
+            delegate.add(task);
+        }
+
+        @Override
+        public synchronized void remove(int id) {
+            delegate.remove(id);
+        }
+
+        @Override
+        public synchronized List<Task> getHistory() {
+            return delegate.getHistory();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package tracker.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+import tracker.entity.Task;
+import tracker.util.DurationTypeAdapter;
+import tracker.util.LocalDateTimeTypeAdapter;
+import tracker.util.TaskTypeAdapter;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и разбор списка из SIZE задач и подзадач: рефлексивный Gson против {@link TaskTypeAdapter}.
+ * С {@code -prof gc} метрика gc.alloc.rate.norm, делённая на SIZE, даёт байты на одну задачу.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JsonBenchmark {
+    private static final int SIZE = 100_000;
+    private static final Type TASK_LIST = new TypeToken<List<Task>>() {
+    }.getType();
+
+    private final Gson reflective = new GsonBuilder()
+            .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+            .create();
+    private final Gson adapter = new GsonBuilder()
+            .registerTypeHierarchyAdapter(Task.class, new TaskTypeAdapter())
+            .create();
+
+    private List<Task> tasks;
+    private String reflectiveJson;
+    private String adapterJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = new ArrayList<>(SIZE);
+        for (int i = 1; i <= SIZE; i++) {
+            LocalDateTime start = BenchmarkData.slot(i);
+            if (i % 2 == 0) {
+                tasks.add(new Subtask(i, "Подзадача " + i, "Описание подзадачи " + i, Status.NEW, 1,
+                        Duration.ofMinutes(30), start));
+            } else {
+                tasks.add(new Task(i, "Задача " + i, "Описание задачи " + i, Status.IN_PROGRESS,
+                        Duration.ofMinutes(30), start));
+            }
+        }
+        reflectiveJson = reflective.toJson(tasks);
+        adapterJson = adapter.toJson(tasks);
+    }
+
+    @Benchmark
+    public String writeReflective() {
+        return reflective.toJson(tasks);
+    }
+
+    @Benchmark
+    public String writeAdapter() {
+        return adapter.toJson(tasks);
+    }
+
+    @Benchmark
+    public List<Task> readReflective() {
+        // Рефлексивный разбор не различает подзадачи и создаёт только Task
+        return reflective.fromJson(reflectiveJson, TASK_LIST);
+    }
+
+    @Benchmark
+    public List<Task> readAdapter() {
+        return adapter.fromJson(adapterJson, TASK_LIST);
+    }
+}
@@ -0,0 +1,53 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Status;
+import tracker.entity.Task;
+import tracker.util.LatencyHistogram;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость записи метрик: {@link LatencyHistogram#record} из многих потоков в одну гистограмму
+ * и накладные расходы {@link TimedTaskManager} на дешёвой операции (peekTask) относительно менеджера без замера.
+ * С {@code -prof gc} метрика gc.alloc.rate.norm для record и timedPeek должна быть около нуля.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final int TASKS = 10_000;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private TaskManager plain;
+    private TaskManager timed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plain = new ConcurrentTaskManager();
+        for (int i = 0; i < TASKS; i++) {
+            plain.createTask("Задача " + i, "Описание", Status.NEW, null, null);
+        }
+        timed = new TimedTaskManager(plain);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void record() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000, 10_000_000));
+    }
+
+    @Benchmark
+    public Task plainPeek() {
+        return plain.peekTask(ThreadLocalRandom.current().nextInt(1, TASKS + 1));
+    }
+
+    @Benchmark
+    public Task timedPeek() {
+        return timed.peekTask(ThreadLocalRandom.current().nextInt(1, TASKS + 1));
+    }
+}
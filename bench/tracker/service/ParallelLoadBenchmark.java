@@ -0,0 +1,42 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабирование параллельной загрузки CSV-снимка по числу потоков.
+ * Последовательный {@link FileBackedTaskManager#loadFromFile(File)} служит базой для сравнения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class ParallelLoadBenchmark {
+    @Param({"2000000"})
+    public int lines;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private File snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        snapshot = BenchmarkData.cachedCsvSnapshot(lines);
+    }
+
+    @Benchmark
+    public FileBackedTaskManager parallel() {
+        return FileBackedTaskManager.loadFromFileParallel(snapshot, threads);
+    }
+
+    @Benchmark
+    public FileBackedTaskManager sequential() {
+        return FileBackedTaskManager.loadFromFile(snapshot);
+    }
+}
@@ -0,0 +1,54 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись и загрузка снимка {@link FileBackedTaskManager} в форматах CSV и BINARY.
+ * Для оценки выделения памяти на одну загруженную задачу запускайте с {@code -prof gc}
+ * (метрика gc.alloc.rate.norm, делённая на size). Размер 1000000 - сценарий запуска с миллионом задач;
+ * файл для него (около 100 МБ) создаётся при первом запуске и переиспользуется.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PersistenceBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"CSV", "BINARY"})
+    public SnapshotFormat format;
+
+    private File snapshot;
+    private FileBackedTaskManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File source = BenchmarkData.cachedCsvSnapshot(size);
+        snapshot = File.createTempFile("tracker-bench", "." + format.name().toLowerCase());
+        FileBackedTaskManager.convertSnapshot(source, snapshot, format);
+        manager = FileBackedTaskManager.loadFromFile(snapshot, format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        snapshot.delete();
+    }
+
+    @Benchmark
+    public FileBackedTaskManager save() {
+        manager.save();
+        return manager;
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        return FileBackedTaskManager.loadFromFile(snapshot);
+    }
+}
@@ -0,0 +1,75 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Status;
+import tracker.entity.Task;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перенос задачи на другое время (удаление и вставка) в {@link ScheduleIndex} против TreeSet задач
+ * с компаратором по (startTime, id). TreeSet находит задачу для удаления по её текущему времени,
+ * поэтому сравнивается и стоимость обратной карты id → ключ.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ScheduleIndexBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private ScheduleIndex index;
+    private TreeSet<Task> treeSet;
+    private Task[] inTreeSet;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new ScheduleIndex();
+        treeSet = new TreeSet<>(Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId));
+        inTreeSet = new Task[size];
+        for (int i = 0; i < size; i++) {
+            inTreeSet[i] = task(i, BenchmarkData.slot(i));
+            index.put(task(i, BenchmarkData.slot(i)));
+            treeSet.add(inTreeSet[i]);
+        }
+    }
+
+    private static Task task(int i, LocalDateTime start) {
+        return new Task(i + 1, "Задача", "Описание", Status.NEW, null, start);
+    }
+
+    /**
+     * Следующая задача и новое время для неё: сдвиг по кругу, чтобы задачи перемешивались по всему индексу.
+     */
+    private int next() {
+        cursor = (cursor + 7919) % size;
+        return cursor;
+    }
+
+    private LocalDateTime newStart(int position) {
+        return BenchmarkData.slot((position + size / 2) % size).plusMinutes(position & 15);
+    }
+
+    @Benchmark
+    public Object rescheduleIndex() {
+        int position = next();
+        index.remove(position + 1);
+        return index.put(task(position, newStart(position)));
+    }
+
+    @Benchmark
+    public boolean rescheduleTreeSet() {
+        int position = next();
+        treeSet.remove(inTreeSet[position]);
+        Task moved = task(position, newStart(position));
+        inTreeSet[position] = moved;
+        return treeSet.add(moved);
+    }
+}
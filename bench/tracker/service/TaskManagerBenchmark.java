@@ -0,0 +1,96 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+import tracker.entity.Epic;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+import tracker.entity.Task;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Основные операции {@link InMemoryTaskManager} при разном количестве задач.
+ * Все задачи просмотрены, поэтому история заполнена на size элементов.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+    private static final Duration DURATION = Duration.ofMinutes(30);
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private InMemoryTaskManager manager;
+    private Epic epic;
+    private int[] taskIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        epic = manager.createEpic("Эпик", "Описание");
+        taskIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            Task task = manager.createTask("Задача " + i, "Описание", Status.NEW, DURATION, BenchmarkData.slot(i));
+            taskIds[i] = task.getId();
+            manager.getTask(task.getId());
+        }
+    }
+
+    private int nextIndex() {
+        cursor = (cursor + 7919) % size;
+        return cursor;
+    }
+
+    @Benchmark
+    public int createAndDeleteTask() {
+        Task task = manager.createTask("Новая задача", "Описание", Status.NEW, DURATION, BenchmarkData.slot(size + 1));
+        manager.deleteTask(task.getId());
+        return task.getId();
+    }
+
+    @Benchmark
+    public Task updateTask() {
+        int index = nextIndex();
+        Task current = manager.peekTask(taskIds[index]);
+        Status status = current.getStatus() == Status.NEW ? Status.IN_PROGRESS : Status.NEW;
+        Task updated = new Task(current.getId(), current.getName(), current.getDescription(), status,
+                DURATION, BenchmarkData.slot(index));
+        manager.updateTask(updated);
+        return updated;
+    }
+
+    @Benchmark
+    public int createAndDeleteSubtask() {
+        Subtask subtask = manager.createSubtask("Подзадача", "Описание", Status.DONE, epic.getId(),
+                DURATION, BenchmarkData.slot(size + 1));
+        manager.deleteSubtask(subtask.getId());
+        return subtask.getId();
+    }
+
+    @Benchmark
+    public boolean hasTimeConflict() {
+        int index = nextIndex();
+        // Чётные проверки попадают в занятый интервал, нечётные - в свободную половину часа
+        int offset = (index & 1) == 0 ? 10 : 40;
+        Task probe = new Task(0, "Проверка", "", Status.NEW, Duration.ofMinutes(10),
+                BenchmarkData.slot(index).plusMinutes(offset));
+        return manager.hasTimeConflict(probe);
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return manager.getPrioritizedTasks();
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return manager.getHistory();
+    }
+}
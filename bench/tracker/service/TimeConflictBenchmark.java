@@ -0,0 +1,62 @@
+package tracker.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка пересечения интервалов: {@link TimeIntervalIndex} против линейного просмотра всех задач,
+ * которым проверка выполнялась до появления индекса.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TimeConflictBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private TimeIntervalIndex index;
+    private LocalDateTime[] starts;
+    private LocalDateTime[] ends;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new TimeIntervalIndex();
+        starts = new LocalDateTime[size];
+        ends = new LocalDateTime[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = BenchmarkData.slot(i);
+            ends[i] = starts[i].plusMinutes(30);
+            index.add(i + 1, starts[i], ends[i]);
+        }
+    }
+
+    private LocalDateTime nextProbe() {
+        cursor = (cursor + 7919) % size;
+        // Чётные проверки попадают в занятый интервал, нечётные - в свободную половину часа
+        return BenchmarkData.slot(cursor).plusMinutes((cursor & 1) == 0 ? 10 : 40);
+    }
+
+    @Benchmark
+    public boolean indexed() {
+        LocalDateTime start = nextProbe();
+        return index.overlaps(start, start.plusMinutes(10), 0);
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        LocalDateTime start = nextProbe();
+        LocalDateTime end = start.plusMinutes(10);
+        for (int i = 0; i < size; i++) {
+            if (start.isBefore(ends[i]) && end.isAfter(starts[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
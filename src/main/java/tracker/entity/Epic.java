@@ -1,18 +1,44 @@
 package tracker.entity;
 
-import tracker.service.TaskManager;
-
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Эпик - задача, состоящая из подзадач.
- * Время начала, окончания и продолжительность рассчитываются на основе подзадач.
+ * Статус, время начала, окончания и продолжительность рассчитываются на основе подзадач.
+ * <p>
+ * Эпик хранит вклад каждой подзадачи и поддерживает агрегаты инкрементально:
+ * счётчики по статусам, суммарную продолжительность и упорядоченные мультимножества
+ * времён начала и окончания. Изменение одной подзадачи обходится в O(log k), где k - число подзадач.
  */
 public class Epic extends Task {
-    private final List<Integer> subtaskIds = new ArrayList<>();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Set<Integer> subtaskIds = new LinkedHashSet<>();
+    private final transient Map<Integer, Contribution> contributions = new HashMap<>();
+    private final transient int[] statusCounts = new int[STATUSES.length];
+    private final transient TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final transient TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    private transient LocalDateTime endTime;
+
+    /**
+     * Значения подзадачи, учтённые в агрегатах эпика.
+     * Хранятся отдельно, так как объект подзадачи может быть изменён до вызова обновления.
+     */
+    private static class Contribution {
+        final Status status;
+        final Duration duration;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+
+        Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.duration = subtask.getDuration();
+            this.startTime = subtask.getStartTime();
+            this.endTime = subtask.getEndTime();
+        }
+    }
 
     /**
      * Конструктор эпика.
@@ -26,72 +52,118 @@ public class Epic extends Task {
     }
 
     /**
-     * @return список идентификаторов подзадач, относящихся к эпику
+     * Копирующий конструктор. Создаёт независимый снимок эпика для чтения:
+     * копируются список подзадач и рассчитанные значения, но не агрегаты подзадач.
+     *
+     * @param source исходный эпик
+     */
+    public Epic(Epic source) {
+        super(source.getId(), source.getName(), source.getDescription(), source.getStatus(),
+                source.getDuration(), source.getStartTime());
+        subtaskIds.addAll(source.subtaskIds);
+        endTime = source.endTime;
+        setVersion(source.getVersion());
+    }
+
+    /**
+     * @return идентификаторы подзадач эпика в порядке добавления (только для чтения)
      */
-    public List<Integer> getSubtaskIds() {
-        return subtaskIds;
+    public Set<Integer> getSubtaskIds() {
+        return Collections.unmodifiableSet(subtaskIds);
     }
 
     /**
-     * Добавляет подзадачу к эпику.
+     * Добавляет подзадачу к эпику или обновляет её вклад, если она уже добавлена,
+     * и пересчитывает статус и время эпика.
      *
-     * @param subtaskId идентификатор подзадачи
+     * @param subtask подзадача
      */
-    public void addSubtask(int subtaskId) {
-        subtaskIds.add(subtaskId);
+    public void addSubtask(Subtask subtask) {
+        Contribution previous = contributions.put(subtask.getId(), new Contribution(subtask));
+        if (previous != null) {
+            exclude(previous);
+        } else {
+            subtaskIds.add(subtask.getId());
+        }
+        include(contributions.get(subtask.getId()));
+        refresh();
     }
 
     /**
-     * Удаляет подзадачу из эпика.
+     * Удаляет подзадачу из эпика и пересчитывает статус и время эпика.
      *
      * @param subtaskId идентификатор подзадачи
      */
     public void removeSubtask(int subtaskId) {
-        subtaskIds.remove((Integer) subtaskId);
+        Contribution previous = contributions.remove(subtaskId);
+        if (previous != null) {
+            subtaskIds.remove(subtaskId);
+            exclude(previous);
+            refresh();
+        }
     }
 
     /**
-     * Пересчитывает временные параметры эпика на основе подзадач.
-     *
-     * @param taskManager менеджер задач для доступа к подзадачам
+     * Удаляет все подзадачи из эпика.
+     */
+    public void clearSubtasks() {
+        subtaskIds.clear();
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        startTimes.clear();
+        endTimes.clear();
+        setDuration(Duration.ZERO);
+        refresh();
+    }
+
+    /**
+     * @return время окончания самой поздней подзадачи или null, если время не задано
      */
-    public void updateTime(TaskManager taskManager) {
-        if (subtaskIds.isEmpty()) {
-            setDuration(Duration.ZERO);
-            setStartTime(null);
-            return;
+    @Override
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    private void include(Contribution contribution) {
+        statusCounts[contribution.status.ordinal()]++;
+        if (contribution.duration != null) {
+            setDuration(getDuration().plus(contribution.duration));
+        }
+        increment(startTimes, contribution.startTime);
+        increment(endTimes, contribution.endTime);
+    }
+
+    private void exclude(Contribution contribution) {
+        statusCounts[contribution.status.ordinal()]--;
+        if (contribution.duration != null) {
+            setDuration(getDuration().minus(contribution.duration));
+        }
+        decrement(startTimes, contribution.startTime);
+        decrement(endTimes, contribution.endTime);
+    }
+
+    private void refresh() {
+        int total = subtaskIds.size();
+        if (total == 0 || statusCounts[Status.NEW.ordinal()] == total) {
+            setStatus(Status.NEW);
+        } else if (statusCounts[Status.DONE.ordinal()] == total) {
+            setStatus(Status.DONE);
+        } else {
+            setStatus(Status.IN_PROGRESS);
         }
+        setStartTime(startTimes.isEmpty() ? null : startTimes.firstKey());
+        endTime = endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
 
-        LocalDateTime earliestStart = null;
-        LocalDateTime latestEnd = null;
-        Duration totalDuration = Duration.ZERO;
-
-        for (int subtaskId : subtaskIds) {
-            Subtask subtask = taskManager.getSubtask(subtaskId);
-            if (subtask == null) continue;
-
-            Duration subtaskDuration = subtask.getDuration();
-            LocalDateTime subtaskStart = subtask.getStartTime();
-            LocalDateTime subtaskEnd = subtask.getEndTime();
-
-            if (subtaskStart != null) {
-                if (earliestStart == null || subtaskStart.isBefore(earliestStart)) {
-                    earliestStart = subtaskStart;
-                }
-            }
-
-            if (subtaskEnd != null) {
-                if (latestEnd == null || subtaskEnd.isAfter(latestEnd)) {
-                    latestEnd = subtaskEnd;
-                }
-            }
-
-            if (subtaskDuration != null) {
-                totalDuration = totalDuration.plus(subtaskDuration);
-            }
+    private static void increment(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        if (time != null) {
+            times.merge(time, 1, Integer::sum);
         }
+    }
 
-        setDuration(totalDuration);
-        setStartTime(earliestStart);
+    private static void decrement(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        if (time != null) {
+            times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+        }
     }
-}
\ No newline at end of file
+}
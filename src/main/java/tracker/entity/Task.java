@@ -15,6 +15,7 @@ public class Task {
     private Status status;
     private Duration duration;
     private LocalDateTime startTime;
+    private long version;
 
     /**
      * Конструктор задачи.
@@ -135,6 +136,22 @@ public class Task {
         this.startTime = startTime;
     }
 
+    /**
+     * @return номер версии сущности в менеджере; растёт при каждом её изменении
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Устанавливает номер версии. Вызывается менеджером задач при изменении сущности.
+     *
+     * @param version новый номер версии
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // Остальные методы (equals, hashCode, toString) остаются без изменений
     @Override
     public boolean equals(Object o) {
@@ -6,11 +6,21 @@ package tracker.exceptions;
  */
 public class ManagerSaveException extends RuntimeException {
     /**
-     * Создает исключение с сообщением об ошибке и причиной.
+     * Создает исключение с сообщением об ошибке.
      *
      * @param message описание ошибки.
      */
     public ManagerSaveException(String message) {
         super(message);
     }
+
+    /**
+     * Создает исключение с сообщением об ошибке и причиной.
+     *
+     * @param message описание ошибки.
+     * @param cause   исходная ошибка.
+     */
+    public ManagerSaveException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
\ No newline at end of file
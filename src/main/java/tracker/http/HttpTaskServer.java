@@ -1,50 +1,237 @@
 package tracker.http;
 
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpServer;
 import tracker.http.handler.*;
+import tracker.service.ConcurrentTaskManager;
 import tracker.service.Managers;
+import tracker.service.SessionHistoryManager;
 import tracker.service.TaskManager;
+import tracker.service.TimedTaskManager;
+import tracker.util.Logger;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP-сервер для обработки запросов к менеджеру задач.
- * Порт: 8080.
- * Основные пути: /tasks, /subtasks, /epics, /history, /prioritized.
+ * Порт по умолчанию: 8080.
+ * Основные пути: /tasks, /subtasks, /epics, /history, /prioritized, /schedule, /batch, /cache/stats, /metrics.
  */
 public class HttpTaskServer {
+    private static final Logger LOG = Logger.getLogger(HttpTaskServer.class);
+
     private static final int PORT = 8080;
+    private static final int PLATFORM_POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+    private static final int PLATFORM_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Режим выполнения обработчиков запросов.
+     */
+    public enum ExecutorMode {
+        /**
+         * Все запросы обрабатываются единственным потоком-диспетчером HttpServer.
+         */
+        DISPATCHER,
+        /**
+         * Отдельный виртуальный поток на каждый запрос (Java 21+).
+         * При недоступности виртуальных потоков используется {@link #PLATFORM}.
+         */
+        VIRTUAL,
+        /**
+         * Ограниченный пул платформенных потоков.
+         */
+        PLATFORM
+    }
+
     private final HttpServer server;
     private final TaskManager manager;
+    private final TimedTaskManager timedManager;
+    private final HttpMetrics httpMetrics = new HttpMetrics();
+    private final RequestLogFilter requestLog = new RequestLogFilter();
+    private final int port;
+    private final ExecutorService executor;
+    private final ExecutorMode executorMode;
+    private final SessionHistoryManager sessions;
+    private final List<BaseHttpHandler> handlers = new ArrayList<>();
+    private final ResponseCache responseCache = ResponseCache.fromSystemProperties();
 
     public HttpTaskServer(TaskManager manager) throws IOException {
-        this.manager = manager;
-        this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this(manager, PORT, 0, ExecutorMode.DISPATCHER);
+    }
+
+    /**
+     * Создаёт сервер с заданными параметрами.
+     *
+     * @param manager      менеджер задач; в режимах VIRTUAL и PLATFORM обработчики вызывают его из многих
+     *                     потоков, поэтому он должен быть {@link ConcurrentTaskManager}
+     * @param port         порт для входящих соединений (0 - любой свободный, см. {@link #getPort()})
+     * @param backlog      размер очереди входящих соединений (0 - значение по умолчанию системы)
+     * @param executorMode режим выполнения обработчиков
+     * @throws IOException              если не удалось открыть порт
+     * @throws IllegalArgumentException если для многопоточного режима передан непотокобезопасный менеджер
+     */
+    public HttpTaskServer(TaskManager manager, int port, int backlog, ExecutorMode executorMode) throws IOException {
+        this(manager, port, backlog, executorMode, null);
+    }
+
+    /**
+     * Создаёт сервер, в котором история просмотров ведётся отдельно для каждой сессии клиента.
+     * Сессия определяется заголовком {@value SessionFilter#SESSION_HEADER}.
+     *
+     * @param manager      менеджер задач, использующий sessions в качестве истории; в режимах VIRTUAL
+     *                     и PLATFORM должен быть {@link ConcurrentTaskManager}
+     * @param port         порт для входящих соединений
+     * @param backlog      размер очереди входящих соединений (0 - значение по умолчанию системы)
+     * @param executorMode режим выполнения обработчиков
+     * @param sessions     история по сессиям или null для общей истории
+     * @throws IOException              если не удалось открыть порт
+     * @throws IllegalArgumentException если для многопоточного режима передан непотокобезопасный менеджер
+     */
+    public HttpTaskServer(TaskManager manager, int port, int backlog, ExecutorMode executorMode,
+                          SessionHistoryManager sessions) throws IOException {
+        if (executorMode != ExecutorMode.DISPATCHER && !(manager instanceof ConcurrentTaskManager)) {
+            throw new IllegalArgumentException("Режим " + executorMode
+                    + " требует потокобезопасного менеджера (Managers.getConcurrent())");
+        }
+        // Все обращения обработчиков к менеджеру идут через замер времени операций
+        this.timedManager = new TimedTaskManager(manager);
+        this.manager = timedManager;
+        this.sessions = sessions;
+        this.server = HttpServer.create(new InetSocketAddress(port), backlog);
+        this.port = server.getAddress().getPort();
+        this.executor = createExecutor(executorMode);
+        this.executorMode = executor == null ? ExecutorMode.DISPATCHER
+                : executor instanceof ThreadPoolExecutor ? ExecutorMode.PLATFORM : ExecutorMode.VIRTUAL;
+        server.setExecutor(executor);
         configureHandlers();
     }
 
+    private static ExecutorService createExecutor(ExecutorMode mode) {
+        switch (mode) {
+            case DISPATCHER:
+                return null;
+            case VIRTUAL:
+                try {
+                    // Вызов через reflection: проект собирается под Java 19, где API виртуальных потоков в preview
+                    return (ExecutorService) Executors.class
+                            .getMethod("newVirtualThreadPerTaskExecutor")
+                            .invoke(null);
+                } catch (ReflectiveOperationException | UnsupportedOperationException unavailable) {
+                    return createPlatformPool();
+                }
+            case PLATFORM:
+                return createPlatformPool();
+            default:
+                throw new IllegalArgumentException("Неизвестный режим исполнения: " + mode);
+        }
+    }
+
+    private static ExecutorService createPlatformPool() {
+        // При переполнении очереди запрос выполняет поток-диспетчер, что притормаживает приём новых соединений
+        return new ThreadPoolExecutor(PLATFORM_POOL_SIZE, PLATFORM_POOL_SIZE, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(PLATFORM_QUEUE_CAPACITY), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     private void configureHandlers() {
-        server.createContext("/tasks", new TaskHandler(manager));
-        server.createContext("/subtasks", new SubtaskHandler(manager));
-        server.createContext("/epics", new EpicHandler(manager));
-        server.createContext("/history", new HistoryHandler(manager));
-        server.createContext("/prioritized", new PrioritizedHandler(manager));
+        createContext("/tasks", new TaskHandler(manager));
+        createContext("/subtasks", new SubtaskHandler(manager));
+        createContext("/epics", new EpicHandler(manager));
+        createContext("/history", new HistoryHandler(manager, sessions));
+        createContext("/prioritized", new PrioritizedHandler(manager));
+        createContext("/schedule", new ScheduleHandler(manager));
+        createContext("/batch", new BatchHandler(manager));
+        if (responseCache != null) {
+            createContext("/cache/stats", new CacheStatsHandler(responseCache));
+        }
+        createContext("/metrics", new MetricsHandler(httpMetrics, timedManager, responseCache));
+    }
+
+    private void createContext(String path, BaseHttpHandler handler) {
+        handlers.add(handler);
+        handler.setResponseCache(responseCache);
+        HttpContext context = server.createContext(path, httpMetrics.instrument(path, handler));
+        context.getFilters().add(requestLog);
+        if (sessions != null) {
+            context.getFilters().add(new SessionFilter(sessions));
+        }
+    }
+
+    /**
+     * Задаёт сжатие ответов для всех обработчиков сервера.
+     * По умолчанию настройки читаются из системных свойств ({@link ResponseCompression#fromSystemProperties()}).
+     */
+    public void setCompression(ResponseCompression compression) {
+        for (BaseHttpHandler handler : handlers) {
+            handler.setCompression(compression);
+        }
+    }
+
+    /**
+     * @return кеш сериализованных ответов или null, если кеширование отключено (tracker.http.cache.bytes=0)
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * @return порт, на котором сервер принимает соединения (выбранный системой, если был задан 0)
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return фактический режим выполнения (VIRTUAL заменяется на PLATFORM, если виртуальные потоки недоступны)
+     */
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
     }
 
     public void start() {
         server.start();
-        System.out.println("Сервер запущен на порту " + PORT);
+        LOG.info("Сервер запущен на порту {} (режим {})", port, executorMode);
     }
 
     public void stop() {
         server.stop(0);
-        System.out.println("Сервер остановлен.");
+        if (executor != null) {
+            executor.shutdown();
+        }
+        LOG.info("Сервер остановлен");
     }
 
+    /**
+     * Запуск сервера. Параметры задаются системными свойствами:
+     * tracker.http.port, tracker.http.backlog, tracker.http.executor (DISPATCHER, VIRTUAL, PLATFORM)
+     * и tracker.http.sessions (true - отдельная история для каждой сессии клиента).
+     * Сжатие ответов настраивается свойствами tracker.http.compression, tracker.http.compression.threshold
+     * и tracker.http.compression.level (см. {@link ResponseCompression#fromSystemProperties()}),
+     * размер кеша ответов - свойством tracker.http.cache.bytes (0 - без кеша),
+     * журнал - свойствами tracker.log.level и tracker.log.buffer (см. {@link tracker.util.AsyncLog#getDefault()}).
+     */
     public static void main(String[] args) throws IOException {
-        TaskManager manager = Managers.getDefault();
-        HttpTaskServer server = new HttpTaskServer(manager);
+        int port = Integer.getInteger("tracker.http.port", PORT);
+        int backlog = Integer.getInteger("tracker.http.backlog", 0);
+        ExecutorMode mode = ExecutorMode.valueOf(System.getProperty("tracker.http.executor", "VIRTUAL"));
+
+        SessionHistoryManager sessions = null;
+        TaskManager manager;
+        if (Boolean.getBoolean("tracker.http.sessions")) {
+            sessions = Managers.getSessionHistory(100, Duration.ofMinutes(30), 10_000);
+            manager = mode == ExecutorMode.DISPATCHER ? Managers.getDefault(sessions) : Managers.getConcurrent(sessions);
+        } else {
+            manager = mode == ExecutorMode.DISPATCHER ? Managers.getDefault() : Managers.getConcurrent();
+        }
+        HttpTaskServer server = new HttpTaskServer(manager, port, backlog, mode, sessions);
         server.start();
     }
 }
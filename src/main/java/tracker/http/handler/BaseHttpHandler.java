@@ -2,33 +2,121 @@ package tracker.http.handler;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import tracker.entity.Task;
+import tracker.entity.TaskType;
 import tracker.exceptions.NotFoundException;
 import tracker.util.DurationTypeAdapter;
 import tracker.util.LocalDateTimeTypeAdapter;
+import tracker.util.Logger;
+import tracker.util.TaskTypeAdapter;
 
+import java.io.BufferedWriter;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Базовый обработчик HTTP-запросов.
  * Предоставляет общие методы для отправки ответов и обработки ошибок.
  */
 public abstract class BaseHttpHandler implements HttpHandler {
+    private static final Logger LOG = Logger.getLogger(BaseHttpHandler.class);
+
+    /**
+     * Размер буфера (в символах) при потоковой записи JSON-ответа.
+     */
+    protected static final int RESPONSE_BUFFER_SIZE = 16 * 1024;
+
+    protected final TaskTypeAdapter taskAdapter = new TaskTypeAdapter();
     protected final Gson gson = new GsonBuilder()
             .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+            .registerTypeHierarchyAdapter(Task.class, taskAdapter)
             .create();
+    private volatile ResponseCompression compression = ResponseCompression.fromSystemProperties();
+    private volatile ResponseCache responseCache;
+
+    private static final AtomicLong ETAG_EPOCHS = new AtomicLong(System.currentTimeMillis());
+    // Счётчики версий менеджера начинаются заново при каждом запуске, поэтому ETag включает эпоху обработчика
+    private final String etagEpoch = Long.toString(ETAG_EPOCHS.getAndIncrement(), 36);
+
+    /**
+     * Читает сущность из тела запроса потоково, без промежуточной строки и дерева JSON.
+     *
+     * @param type ожидаемый тип сущности
+     * @return прочитанная сущность
+     * @throws JsonSyntaxException если тело пустое, не является JSON или в нём нет обязательных полей
+     */
+    protected Task readEntity(HttpExchange exchange, TaskType type) throws IOException {
+        return readEntity(exchange, type, null);
+    }
+
+    /**
+     * Читает сущность и флаги запроса, переданные в теле рядом с её полями
+     * (см. {@link TaskTypeAdapter#read(JsonReader, TaskType, Map)}).
+     *
+     * @param flags флаги со значениями по умолчанию; значения из тела записываются в эту же карту
+     */
+    protected Task readEntity(HttpExchange exchange, TaskType type, Map<String, Boolean> flags) throws IOException {
+        return readBody(exchange, reader -> {
+            Task entity = taskAdapter.read(reader, type, flags);
+            if (entity == null) {
+                throw new JsonSyntaxException("Тело запроса не может быть пустым");
+            }
+            return entity;
+        });
+    }
+
+    /**
+     * Чтение значения из потока JSON.
+     */
+    @FunctionalInterface
+    protected interface BodyReader<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Читает тело запроса потоково. Ошибки формата JSON приводятся к {@link JsonSyntaxException},
+     * как при чтении сущности.
+     *
+     * @param bodyReader разбирает тело из JsonReader
+     * @throws JsonSyntaxException если тело пустое или не является корректным JSON
+     */
+    protected <T> T readBody(HttpExchange exchange, BodyReader<T> bodyReader) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        try {
+            return bodyReader.read(reader);
+        } catch (EOFException e) {
+            throw new JsonSyntaxException("Тело запроса не может быть пустым");
+        } catch (MalformedJsonException | IllegalStateException e) {
+            throw new JsonSyntaxException(e.getMessage(), e);
+        }
+    }
 
     protected void sendText(HttpExchange exchange, String text, int statusCode) throws IOException {
-        byte[] response = text.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, response.length);
-        exchange.getResponseBody().write(response);
-        exchange.close();
+        try (OutputStream body = openResponseBody(exchange, statusCode)) {
+            body.write(text.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+        }
     }
 
     protected void sendSuccess(HttpExchange exchange, String response) throws IOException {
@@ -41,17 +129,7 @@ public abstract class BaseHttpHandler implements HttpHandler {
     }
 
     protected void sendCreated(HttpExchange exchange, Object responseObject) throws IOException {
-        // Сериализуем объект в JSON
-        String jsonResponse = gson.toJson(responseObject);
-        byte[] response = jsonResponse.getBytes(StandardCharsets.UTF_8);
-
-        // Устанавливаем заголовки
-        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-
-        // Отправляем ответ с кодом 201 и телом
-        exchange.sendResponseHeaders(201, response.length);
-        exchange.getResponseBody().write(response);
-        exchange.close();
+        sendJson(exchange, responseObject, 201);
     }
 
     protected void sendNotFound(HttpExchange exchange) throws IOException {
@@ -66,13 +144,199 @@ public abstract class BaseHttpHandler implements HttpHandler {
         if (exception instanceof NotFoundException) {
             sendNotFound(exchange);
         } else {
+            LOG.error("Необработанная ошибка в {}", getClass().getSimpleName(), exception);
             String errorMessage = String.format("Ошибка сервера: %s", exception.getMessage());
             sendText(exchange, errorMessage, 500);
         }
     }
 
     protected <T> void sendJsonResponse(HttpExchange exchange, T responseObject) throws IOException {
-        String jsonResponse = gson.toJson(responseObject);
-        sendSuccess(exchange, jsonResponse);
+        sendJson(exchange, responseObject, 200);
+    }
+
+    /**
+     * Сериализует объект прямо в тело ответа, не собирая JSON в строку и массив байт.
+     * <p>
+     * Длина большого ответа заранее неизвестна, поэтому он передаётся блоками (chunked transfer encoding),
+     * а в памяти одновременно находится не больше {@link #RESPONSE_BUFFER_SIZE} символов ответа.
+     * Ошибку сериализации после отправки заголовков уже нельзя сообщить кодом ответа -
+     * соединение просто закрывается, и клиент получает оборванное тело.
+     */
+    protected void sendJson(HttpExchange exchange, Object responseObject, int statusCode) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(openResponseBody(exchange, statusCode), StandardCharsets.UTF_8),
+                RESPONSE_BUFFER_SIZE))) {
+            gson.toJson(responseObject, responseObject == null ? Object.class : responseObject.getClass(), writer);
+        } catch (JsonIOException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Отправляет JSON-ответ, построенный для версии данных version.
+     * Если в кеше ответов есть тело для этой версии (с той же кодировкой), оно отправляется без чтения
+     * и сериализации данных; иначе данные сериализуются как обычно, а ушедшее клиенту тело сохраняется в кеш.
+     * Версию нужно получить у менеджера до чтения данных (см. {@link #checkNotModified}).
+     *
+     * @param version версия набора данных или сущности
+     * @param data    источник данных, вызывается только при промахе кеша
+     */
+    protected void sendCachedJson(HttpExchange exchange, long version, Supplier<?> data) throws IOException {
+        ResponseCache cache = this.responseCache;
+        if (cache == null) {
+            sendJsonResponse(exchange, data.get());
+            return;
+        }
+        String encoding = compression.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        String key = exchange.getRequestURI() + "|" + (encoding != null ? encoding : "identity");
+        ResponseCache.Entry entry = cache.get(key, version);
+        if (entry != null) {
+            sendCachedEntry(exchange, entry);
+            return;
+        }
+        ResponseCache.Capture capture = cache.capture(exchange.getResponseBody());
+        exchange.setStreams(null, capture);
+        sendJsonResponse(exchange, data.get());
+        byte[] body = capture.toByteArray();
+        if (body != null) {
+            cache.put(key, version, exchange.getResponseHeaders().getFirst("Content-Encoding"), body);
+        }
+    }
+
+    private void sendCachedEntry(HttpExchange exchange, ResponseCache.Entry entry) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        if (compression.isEnabled()) {
+            addVary(exchange, "Accept-Encoding");
+        }
+        if (entry.encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", entry.encoding);
+        }
+        try (OutputStream body = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(200, entry.body.length == 0 ? -1 : entry.body.length);
+            body.write(entry.body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Добавляет к ответу слабый ETag для версии данных и, если эта версия уже есть у клиента
+     * (заголовок If-None-Match), отвечает 304 без чтения и сериализации данных.
+     * Версию нужно получить у менеджера до чтения данных: тогда ETag может оказаться только старше данных,
+     * и клиент в худшем случае получит их повторно.
+     *
+     * @param version версия набора данных или сущности
+     * @return true, если отправлен ответ 304
+     */
+    protected boolean checkNotModified(HttpExchange exchange, long version) throws IOException {
+        return checkNotModified(exchange, null, version);
+    }
+
+    /**
+     * То же, что {@link #checkNotModified(HttpExchange, long)}, для данных, различающихся между клиентами.
+     *
+     * @param scope   признак области данных (например, сессии), входящий в ETag; null - без области
+     * @param version версия данных внутри области
+     */
+    protected boolean checkNotModified(HttpExchange exchange, String scope, long version) throws IOException {
+        String etag = "W/\"" + etagEpoch + (scope != null ? "-" + scope : "") + "-" + version + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !matchesEtag(ifNoneMatch, etag)) {
+            return false;
+        }
+        if (compression.isEnabled()) {
+            addVary(exchange, "Accept-Encoding");
+        }
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    /**
+     * Добавляет заголовок запроса в Vary ответа, сохраняя уже перечисленные.
+     */
+    protected static void addVary(HttpExchange exchange, String header) {
+        String vary = exchange.getResponseHeaders().getFirst("Vary");
+        if (vary == null) {
+            exchange.getResponseHeaders().set("Vary", header);
+        } else if (!vary.contains(header)) {
+            exchange.getResponseHeaders().set("Vary", vary + ", " + header);
+        }
+    }
+
+    /**
+     * Слабое сравнение ETag (RFC 9110): префикс W/ не учитывается, "*" совпадает с любым значением.
+     */
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Открывает тело ответа со сжатием, согласованным по заголовку Accept-Encoding запроса.
+     * Заголовки ответа отправляются при записи первых {@link ResponseCompression#getThreshold()} байт
+     * или при закрытии потока, поэтому все заголовки нужно добавить до записи тела.
+     */
+    protected OutputStream openResponseBody(HttpExchange exchange, int statusCode) {
+        ResponseCompression compression = this.compression;
+        String encoding = compression.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        if (compression.isEnabled()) {
+            // Ответ зависит от Accept-Encoding, и кеши должны это учитывать
+            addVary(exchange, "Accept-Encoding");
+        }
+        return new ResponseBodyStream(exchange, statusCode, encoding, compression);
+    }
+
+    /**
+     * @param responseCache кеш сериализованных ответов или null, чтобы не кешировать
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * @param compression настройки сжатия ответов этого обработчика
+     */
+    public void setCompression(ResponseCompression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Разбирает параметры строки запроса. При повторе параметра остаётся последнее значение.
+     *
+     * @return параметры запроса; пустая карта, если строки запроса нет
+     */
+    protected static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package tracker.http.handler;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.sun.net.httpserver.HttpExchange;
+import tracker.entity.TaskType;
+import tracker.exceptions.ManagerSaveException;
+import tracker.exceptions.NotFoundException;
+import tracker.service.BatchOperation;
+import tracker.service.TaskManager;
+import tracker.util.TaskTypeAdapter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Обработчик пакетных изменений (эндпоинт POST /batch).
+ * <p>
+ * Тело запроса - массив операций, применяемых по порядку и атомарно:
+ * <ul>
+ *     <li>{@code {"op": "createTask", "name", "description", "status", "duration", "startTime"}};</li>
+ *     <li>{@code {"op": "createSubtask", ..., "epicId"}};</li>
+ *     <li>{@code {"op": "delete", "id"}} - удаление задачи, подзадачи или эпика.</li>
+ * </ul>
+ * В ответе 201 возвращаются созданные задачи; при пересечении по времени - 406,
+ * при ссылке на несуществующий эпик - 404, и в обоих случаях пакет не применяется.
+ */
+public class BatchHandler extends BaseHttpHandler {
+    private final TaskManager manager;
+
+    public BatchHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendNotFound(exchange);
+                return;
+            }
+            List<BatchOperation> operations;
+            try {
+                operations = readBody(exchange, this::readOperations);
+            } catch (JsonParseException | IllegalArgumentException e) {
+                sendText(exchange, "Неверный формат пакета: " + e.getMessage(), 400);
+                return;
+            }
+
+            try {
+                sendCreated(exchange, manager.applyBatch(operations));
+            } catch (ManagerSaveException saveException) {
+                sendHasOverlaps(exchange);
+            } catch (NotFoundException notFoundException) {
+                sendText(exchange, notFoundException.getMessage(), 404);
+            }
+        } catch (Exception generalException) {
+            handleException(exchange, generalException);
+        }
+    }
+
+    /**
+     * Читает массив операций потоково. Поля операции читаются {@link TaskTypeAdapter},
+     * а тип создаваемой сущности выбирается по полю op.
+     */
+    private List<BatchOperation> readOperations(JsonReader in) throws IOException {
+        List<BatchOperation> operations = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            TaskTypeAdapter.Fields fields = taskAdapter.readFields(in, null, "op");
+            if (fields == null || fields.getSelector() == null) {
+                throw new JsonSyntaxException("Отсутствует обязательное поле: op");
+            }
+            String op = fields.getSelector();
+            switch (op) {
+                case "createTask":
+                    operations.add(BatchOperation.create(fields.toEntity(TaskType.TASK)));
+                    break;
+                case "createSubtask":
+                    operations.add(BatchOperation.create(fields.toEntity(TaskType.SUBTASK)));
+                    break;
+                case "delete":
+                    operations.add(BatchOperation.delete(fields.requireId()));
+                    break;
+                default:
+                    throw new JsonSyntaxException("Неизвестная операция: " + op);
+            }
+        }
+        in.endArray();
+        return operations;
+    }
+}
@@ -0,0 +1,39 @@
+package tracker.http.handler;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * Обработчик статистики кеша ответов (эндпоинт /cache/stats).
+ */
+public class CacheStatsHandler extends BaseHttpHandler {
+    private final ResponseCache cache;
+
+    public CacheStatsHandler(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if ("GET".equals(exchange.getRequestMethod())) {
+                // GET /cache/stats
+                JsonObject stats = new JsonObject();
+                stats.addProperty("hits", cache.getHits());
+                stats.addProperty("misses", cache.getMisses());
+                stats.addProperty("hitRatio", cache.getHitRatio());
+                stats.addProperty("bytesSaved", cache.getBytesSaved());
+                stats.addProperty("entries", cache.getEntryCount());
+                stats.addProperty("bytes", cache.getTotalBytes());
+                stats.addProperty("evictions", cache.getEvictions());
+                sendJsonResponse(exchange, stats);
+            } else {
+                sendNotFound(exchange);
+            }
+        } catch (Exception generalException) {
+            handleException(exchange, generalException);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package tracker.http.handler;
 
 import com.sun.net.httpserver.HttpExchange;
+import tracker.service.SessionHistoryManager;
 import tracker.service.TaskManager;
 
 import java.io.IOException;
@@ -10,9 +11,18 @@ import java.io.IOException;
  */
 public class HistoryHandler extends BaseHttpHandler {
     private final TaskManager manager;
+    private final SessionHistoryManager sessions;
 
     public HistoryHandler(TaskManager manager) {
+        this(manager, null);
+    }
+
+    /**
+     * @param sessions история по сессиям, которую использует manager, или null для общей истории
+     */
+    public HistoryHandler(TaskManager manager, SessionHistoryManager sessions) {
         this.manager = manager;
+        this.sessions = sessions;
     }
 
     @Override
@@ -22,8 +32,18 @@ public class HistoryHandler extends BaseHttpHandler {
 
             if ("GET".equals(requestMethod)) {
                 // GET /history
-                String historyResponse = gson.toJson(manager.getHistory());
-                sendSuccess(exchange, historyResponse);
+                boolean notModified;
+                if (sessions != null) {
+                    // У каждой сессии своя история: ETag строится по версии истории сессии, а не по общей версии
+                    addVary(exchange, SessionFilter.SESSION_HEADER);
+                    String scope = Integer.toHexString(sessions.getCurrentSessionId().hashCode());
+                    notModified = checkNotModified(exchange, scope, sessions.getVersion());
+                } else {
+                    notModified = checkNotModified(exchange, manager.getVersion(TaskManager.DataSet.HISTORY));
+                }
+                if (!notModified) {
+                    sendJsonResponse(exchange, manager.getHistory());
+                }
             } else {
                 sendNotFound(exchange);
             }
@@ -0,0 +1,132 @@
+package tracker.http.handler;
+
+import com.sun.net.httpserver.HttpHandler;
+import tracker.util.LatencyHistogram;
+import tracker.util.PrometheusWriter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Метрики HTTP-запросов: количество по кодам ответа и гистограмма задержек для каждого маршрута и метода.
+ * <p>
+ * Маршрут - путь контекста сервера (/tasks, /epics, ...), а не полный путь запроса, поэтому число
+ * рядов метрик ограничено. Счётчики маршрута создаются при регистрации обработчика, счётчики метода -
+ * один раз при первом запросе с этим методом; после этого запись запроса сводится к атомарным
+ * инкрементам без блокировок и выделения памяти.
+ */
+public class HttpMetrics {
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS", "OTHER"};
+    private static final int MAX_STATUS = 599;
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Счётчики одного метода маршрута.
+     */
+    private static final class MethodMetrics {
+        final LatencyHistogram latency = new LatencyHistogram();
+        // Индекс - код ответа; в ячейке 0 учитываются запросы, на которые ответ не был отправлен
+        final AtomicLongArray statuses = new AtomicLongArray(MAX_STATUS + 1);
+    }
+
+    private static final class RouteMetrics {
+        final AtomicReferenceArray<MethodMetrics> methods = new AtomicReferenceArray<>(METHODS.length);
+
+        MethodMetrics forMethod(int index) {
+            MethodMetrics metrics = methods.get(index);
+            if (metrics == null) {
+                methods.compareAndSet(index, null, new MethodMetrics());
+                metrics = methods.get(index);
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * Оборачивает обработчик так, чтобы каждый запрос учитывался в метриках маршрута.
+     * Задержка измеряется от вызова обработчика до его завершения, то есть включает отправку тела.
+     *
+     * @param route    путь контекста, под которым зарегистрирован обработчик
+     * @param delegate исходный обработчик
+     */
+    public HttpHandler instrument(String route, HttpHandler delegate) {
+        RouteMetrics metrics = routes.computeIfAbsent(route, path -> new RouteMetrics());
+        return exchange -> {
+            long start = System.nanoTime();
+            boolean completed = false;
+            try {
+                delegate.handle(exchange);
+                completed = true;
+            } finally {
+                int status = exchange.getResponseCode();
+                if (status < 0 && !completed) {
+                    // Исключение до отправки ответа: сервер закроет соединение, клиент увидит ошибку
+                    status = 500;
+                }
+                MethodMetrics methodMetrics = metrics.forMethod(methodIndex(exchange.getRequestMethod()));
+                methodMetrics.statuses.incrementAndGet(status >= 100 && status <= MAX_STATUS ? status : 0);
+                methodMetrics.latency.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static int methodIndex(String method) {
+        switch (method) {
+            case "GET":
+                return 0;
+            case "POST":
+                return 1;
+            case "PUT":
+                return 2;
+            case "DELETE":
+                return 3;
+            case "PATCH":
+                return 4;
+            case "HEAD":
+                return 5;
+            case "OPTIONS":
+                return 6;
+            default:
+                return 7;
+        }
+    }
+
+    /**
+     * Выводит метрики tracker_http_requests_total и tracker_http_request_duration_seconds.
+     */
+    public void writeTo(PrometheusWriter writer) {
+        writer.header("tracker_http_requests_total", "counter",
+                "Количество HTTP-запросов по маршруту, методу и коду ответа");
+        routes.forEach((route, metrics) -> forEachMethod(metrics, (method, methodMetrics) -> {
+            for (int status = 0; status <= MAX_STATUS; status++) {
+                long count = methodMetrics.statuses.get(status);
+                if (count > 0) {
+                    writer.sample("tracker_http_requests_total", PrometheusWriter.labels(
+                            "route", route, "method", method, "status", status == 0 ? "none" : Integer.toString(status)),
+                            count);
+                }
+            }
+        }));
+        writer.header("tracker_http_request_duration_seconds", "histogram",
+                "Время обработки HTTP-запроса по маршруту и методу");
+        routes.forEach((route, metrics) -> forEachMethod(metrics, (method, methodMetrics) ->
+                writer.histogram("tracker_http_request_duration_seconds",
+                        PrometheusWriter.labels("route", route, "method", method), methodMetrics.latency)));
+    }
+
+    private interface MethodVisitor {
+        void visit(String method, MethodMetrics metrics);
+    }
+
+    private static void forEachMethod(RouteMetrics metrics, MethodVisitor visitor) {
+        for (int i = 0; i < METHODS.length; i++) {
+            MethodMetrics methodMetrics = metrics.methods.get(i);
+            if (methodMetrics != null) {
+                visitor.visit(METHODS[i], methodMetrics);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package tracker.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import tracker.service.TimedTaskManager;
+import tracker.util.PrometheusWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Обработчик метрик сервера в текстовом формате Prometheus (эндпоинт /metrics).
+ * Выводит метрики HTTP-запросов, время операций менеджера и статистику кеша ответов.
+ */
+public class MetricsHandler extends BaseHttpHandler {
+    private final HttpMetrics httpMetrics;
+    private final TimedTaskManager manager;
+    private final ResponseCache responseCache;
+
+    /**
+     * @param httpMetrics   метрики HTTP-запросов
+     * @param manager       менеджер с замером операций
+     * @param responseCache кеш ответов или null, если он отключён
+     */
+    public MetricsHandler(HttpMetrics httpMetrics, TimedTaskManager manager, ResponseCache responseCache) {
+        this.httpMetrics = httpMetrics;
+        this.manager = manager;
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if ("GET".equals(exchange.getRequestMethod())) {
+                // GET /metrics
+                PrometheusWriter writer = new PrometheusWriter();
+                httpMetrics.writeTo(writer);
+                manager.writeTo(writer);
+                if (responseCache != null) {
+                    writeCacheMetrics(writer);
+                }
+                exchange.getResponseHeaders().set("Content-Type", PrometheusWriter.CONTENT_TYPE);
+                try (OutputStream body = openResponseBody(exchange, 200)) {
+                    body.write(writer.toString().getBytes(StandardCharsets.UTF_8));
+                } finally {
+                    exchange.close();
+                }
+            } else {
+                sendNotFound(exchange);
+            }
+        } catch (Exception generalException) {
+            handleException(exchange, generalException);
+        }
+    }
+
+    private void writeCacheMetrics(PrometheusWriter writer) {
+        writer.header("tracker_response_cache_hits_total", "counter", "Ответы, отданные из кеша")
+                .sample("tracker_response_cache_hits_total", "", responseCache.getHits());
+        writer.header("tracker_response_cache_misses_total", "counter", "Ответы, построенные заново")
+                .sample("tracker_response_cache_misses_total", "", responseCache.getMisses());
+        writer.header("tracker_response_cache_saved_bytes_total", "counter",
+                        "Байты ответов, отданные из кеша без сериализации и сжатия")
+                .sample("tracker_response_cache_saved_bytes_total", "", responseCache.getBytesSaved());
+        writer.header("tracker_response_cache_evictions_total", "counter", "Записи, вытесненные из кеша")
+                .sample("tracker_response_cache_evictions_total", "", responseCache.getEvictions());
+        writer.header("tracker_response_cache_bytes", "gauge", "Общий размер тел в кеше")
+                .sample("tracker_response_cache_bytes", "", responseCache.getTotalBytes());
+    }
+}
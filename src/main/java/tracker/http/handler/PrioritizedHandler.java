@@ -1,14 +1,28 @@
 package tracker.http.handler;
 
 import com.sun.net.httpserver.HttpExchange;
+import tracker.entity.Task;
 import tracker.service.TaskManager;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Обработчик HTTP-запросов для приоритетных задач (эндпоинт /prioritized).
+ * <p>
+ * Без параметров возвращает весь список. Параметры from и to (ISO-8601, например 2024-01-01T09:00)
+ * ограничивают время начала полуинтервалом [from, to), limit задаёт размер страницы.
+ * Если после страницы есть ещё задачи, в заголовке X-Next-Cursor возвращается курсор,
+ * который передаётся в параметре cursor для получения следующей страницы.
  */
 public class PrioritizedHandler extends BaseHttpHandler {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TaskManager manager;
 
     public PrioritizedHandler(TaskManager manager) {
@@ -21,9 +35,17 @@ public class PrioritizedHandler extends BaseHttpHandler {
             String requestMethod = exchange.getRequestMethod();
 
             if ("GET".equals(requestMethod)) {
-                // GET /prioritized
-                String prioritizedTasksResponse = gson.toJson(manager.getPrioritizedTasks());
-                sendSuccess(exchange, prioritizedTasksResponse);
+                Map<String, String> params = parseQuery(exchange);
+                if (params.isEmpty()) {
+                    // GET /prioritized
+                    long version = manager.getVersion(TaskManager.DataSet.PRIORITIZED);
+                    if (!checkNotModified(exchange, version)) {
+                        sendCachedJson(exchange, version, manager::getPrioritizedTasks);
+                    }
+                } else {
+                    // GET /prioritized?from=&to=&limit=&cursor=
+                    handleRange(exchange, params);
+                }
             } else {
                 sendNotFound(exchange);
             }
@@ -31,4 +53,85 @@ public class PrioritizedHandler extends BaseHttpHandler {
             handleException(exchange, generalException);
         }
     }
-}
\ No newline at end of file
+
+    private void handleRange(HttpExchange exchange, Map<String, String> params) throws IOException {
+        LocalDateTime from;
+        LocalDateTime to;
+        int limit;
+        try {
+            from = parseTime(params.get("from"));
+            to = parseTime(params.get("to"));
+        } catch (DateTimeParseException e) {
+            sendText(exchange, "Неверный формат времени", 400);
+            return;
+        }
+        try {
+            limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : Integer.MAX_VALUE;
+        } catch (NumberFormatException e) {
+            limit = 0;
+        }
+        if (limit <= 0) {
+            sendText(exchange, "Неверное значение limit", 400);
+            return;
+        }
+
+        String cursor = params.get("cursor");
+        Task position = null;
+        if (cursor != null) {
+            position = decodeCursor(cursor);
+            if (position == null) {
+                sendText(exchange, "Неверный курсор", 400);
+                return;
+            }
+        }
+        // Страница определяется параметрами запроса (частью URL) и содержимым расписания
+        if (checkNotModified(exchange, manager.getVersion(TaskManager.DataSet.PRIORITIZED))) {
+            return;
+        }
+
+        // Запрашиваем на одну задачу больше, чтобы понять, есть ли следующая страница
+        int fetch = limit == Integer.MAX_VALUE ? limit : limit + 1;
+        List<Task> page;
+        if (position != null) {
+            page = manager.getPrioritizedTasksAfter(position.getStartTime(), position.getId(), to, fetch);
+        } else {
+            page = manager.getPrioritizedTasks(from, to, fetch);
+        }
+
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            exchange.getResponseHeaders().add(NEXT_CURSOR_HEADER, encodeCursor(page.get(limit - 1)));
+        }
+        sendJsonResponse(exchange, page);
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    /**
+     * Курсор - время начала и id последней задачи страницы в base64url; клиенту он непрозрачен.
+     */
+    static String encodeCursor(Task task) {
+        String position = task.getStartTime() + "|" + task.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return задача-ключ с временем начала и id из курсора или null, если курсор повреждён
+     */
+    static Task decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf('|');
+            if (separator < 0) {
+                return null;
+            }
+            LocalDateTime startTime = LocalDateTime.parse(position.substring(0, separator));
+            int id = Integer.parseInt(position.substring(separator + 1));
+            return new Task(id, null, null, null, null, startTime);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return null;
+        }
+    }
+}
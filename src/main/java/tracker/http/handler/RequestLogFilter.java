@@ -0,0 +1,32 @@
+package tracker.http.handler;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import tracker.util.Logger;
+
+import java.io.IOException;
+
+/**
+ * Фильтр, записывающий в журнал на уровне DEBUG одну строку на запрос: метод, путь и код ответа.
+ * Если DEBUG отключён, фильтр только проверяет уровень.
+ */
+public class RequestLogFilter extends Filter {
+    private static final Logger LOG = Logger.getLogger(RequestLogFilter.class);
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{} -> {}", exchange.getRequestMethod() + " " + exchange.getRequestURI(),
+                        exchange.getResponseCode());
+            }
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Запись запросов в журнал";
+    }
+}
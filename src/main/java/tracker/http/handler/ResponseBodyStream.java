@@ -0,0 +1,117 @@
+package tracker.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Тело ответа, заголовки которого отправляются при первой необходимости.
+ * <p>
+ * Первые threshold байт накапливаются в буфере. Если тело в него уместилось, ответ уходит без сжатия
+ * с точной длиной Content-Length. Иначе отправляются заголовки с Content-Encoding (если клиент
+ * принимает сжатие) и передачей блоками, а буфер и остальное тело пишутся через компрессор
+ * прямо в соединение - размер всего ответа заранее знать не нужно.
+ */
+class ResponseBodyStream extends OutputStream {
+    private static final int COMPRESSOR_BUFFER_SIZE = 8192;
+
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final String encoding;
+    private final int level;
+    private final byte[] buffer;
+    private int count;
+    private OutputStream out;
+    private Deflater deflater;
+    private boolean closed;
+
+    /**
+     * @param encoding согласованная кодировка ({@link ResponseCompression#GZIP}, {@link ResponseCompression#DEFLATE})
+     *                 или null для ответа без сжатия
+     */
+    ResponseBodyStream(HttpExchange exchange, int statusCode, String encoding, ResponseCompression compression) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.encoding = encoding;
+        this.level = compression.getLevel();
+        this.buffer = new byte[compression.getThreshold()];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Тело ответа уже закрыто");
+        }
+        if (out == null) {
+            if (count + length <= buffer.length) {
+                System.arraycopy(bytes, offset, buffer, count, length);
+                count += length;
+                return;
+            }
+            startStreaming();
+        }
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // До отправки заголовков сбрасывать нечего: буфер нужен, чтобы узнать размер ответа
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (out == null) {
+            exchange.sendResponseHeaders(statusCode, count == 0 ? -1 : count);
+            OutputStream body = exchange.getResponseBody();
+            body.write(buffer, 0, count);
+            body.close();
+            return;
+        }
+        try {
+            out.close();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private void startStreaming() throws IOException {
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        }
+        // Заголовки отправляются до создания компрессора: GZIPOutputStream сразу пишет свой заголовок в тело
+        exchange.sendResponseHeaders(statusCode, 0);
+        OutputStream body = exchange.getResponseBody();
+        if (encoding == null) {
+            out = body;
+        } else if (ResponseCompression.GZIP.equals(encoding)) {
+            out = new GZIPOutputStream(body, COMPRESSOR_BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        } else {
+            // HTTP deflate - это поток zlib (RFC 1950), а не "сырой" deflate
+            deflater = new Deflater(level);
+            out = new DeflaterOutputStream(body, deflater, COMPRESSOR_BUFFER_SIZE);
+        }
+        out.write(buffer, 0, count);
+    }
+}
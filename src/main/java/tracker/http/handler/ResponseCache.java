@@ -0,0 +1,240 @@
+package tracker.http.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кеш закодированных тел ответов для часто читаемых списков и сущностей.
+ * <p>
+ * Запись хранит тело в том виде, в каком оно ушло клиенту (в том числе сжатое), и версию данных
+ * менеджера, с которой оно было построено. Запись выдаётся, только пока версия набора данных не
+ * изменилась, поэтому любое изменение в менеджере сразу делает устаревшими ровно те ответы,
+ * которые от него зависят, а остальные продолжают отдаваться из кеша.
+ * <p>
+ * Общий размер тел ограничен maxBytes: при превышении вытесняются записи, к которым дольше всего
+ * не обращались. Тела больше четверти лимита не кешируются, чтобы один огромный список
+ * не вытеснял всё остальное.
+ */
+public class ResponseCache {
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Закодированное тело ответа.
+     */
+    static final class Entry {
+        final long version;
+        final String encoding;
+        final byte[] body;
+
+        Entry(long version, String encoding, byte[] body) {
+            this.version = version;
+            this.encoding = encoding;
+            this.body = body;
+        }
+    }
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxBytes наибольший общий размер хранимых тел в байтах
+     */
+    public ResponseCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Размер кеша должен быть положительным");
+        }
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int) Math.min(maxBytes / 4, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Создаёт кеш по системному свойству tracker.http.cache.bytes.
+     *
+     * @return кеш или null, если свойство равно 0 (кеширование отключено)
+     */
+    public static ResponseCache fromSystemProperties() {
+        long maxBytes = Long.getLong("tracker.http.cache.bytes", DEFAULT_MAX_BYTES);
+        return maxBytes > 0 ? new ResponseCache(maxBytes) : null;
+    }
+
+    /**
+     * Возвращает тело для ключа, если оно построено для текущей версии данных.
+     * Запись с другой версией устарела и удаляется.
+     *
+     * @param key     ключ ответа (путь, параметры и кодировка)
+     * @param version текущая версия данных, от которых зависит ответ
+     * @return запись или null при промахе
+     */
+    Entry get(String key, long version) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.version != version) {
+                entries.remove(key);
+                totalBytes -= entry.body.length;
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        bytesSaved.addAndGet(entry.body.length);
+        return entry;
+    }
+
+    /**
+     * Сохраняет тело ответа. Запись более новой версии, сохранённая параллельным запросом, не заменяется.
+     */
+    synchronized void put(String key, long version, String encoding, byte[] body) {
+        if (body.length > maxEntryBytes) {
+            return;
+        }
+        Entry previous = entries.get(key);
+        if (previous != null) {
+            if (previous.version > version) {
+                return;
+            }
+            totalBytes -= previous.body.length;
+        }
+        entries.put(key, new Entry(version, encoding, body));
+        totalBytes += body.length;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().body.length;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Оборачивает тело ответа так, чтобы записанные в него байты можно было сохранить в кеш.
+     */
+    Capture capture(OutputStream body) {
+        return new Capture(body, maxEntryBytes);
+    }
+
+    /**
+     * Поток, копирующий записываемые байты, пока их не больше лимита записи кеша.
+     */
+    static final class Capture extends FilterOutputStream {
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        Capture(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            if (copy != null) {
+                copy.write(bytes, offset, length);
+                checkLimit();
+            }
+        }
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                // Тело слишком большое для кеша - дальше просто передаём байты
+                copy = null;
+            }
+        }
+
+        /**
+         * @return записанные байты или null, если тело превысило лимит
+         */
+        byte[] toByteArray() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+    }
+
+    /**
+     * @return количество ответов, отданных из кеша
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return количество ответов, которые пришлось построить заново
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return доля ответов, отданных из кеша
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return суммарный размер тел, отданных из кеша без сериализации и сжатия
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    /**
+     * @return количество записей, вытесненных из-за ограничения размера
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return количество хранимых записей
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return общий размер хранимых тел в байтах
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCache{" +
+                "hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                ", bytesSaved=" + getBytesSaved() +
+                ", entries=" + getEntryCount() +
+                ", bytes=" + getTotalBytes() +
+                ", evictions=" + getEvictions() +
+                '}';
+    }
+}
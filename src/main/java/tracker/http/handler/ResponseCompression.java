@@ -0,0 +1,128 @@
+package tracker.http.handler;
+
+import java.util.zip.Deflater;
+
+/**
+ * Настройки сжатия HTTP-ответов.
+ * <p>
+ * Ответ сжимается, если клиент принимает gzip или deflate (заголовок Accept-Encoding)
+ * и тело больше порога threshold. Небольшие ответы отправляются как есть: накладные расходы
+ * заголовков gzip и время сжатия для них не окупаются.
+ */
+public final class ResponseCompression {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    private static final ResponseCompression DISABLED = new ResponseCompression(false, DEFAULT_THRESHOLD,
+            Deflater.DEFAULT_COMPRESSION);
+
+    private final boolean enabled;
+    private final int threshold;
+    private final int level;
+
+    /**
+     * @param threshold минимальный размер тела в байтах, начиная с которого ответ сжимается
+     * @param level     уровень сжатия от 0 до 9 или -1 для уровня по умолчанию
+     */
+    public ResponseCompression(int threshold, int level) {
+        this(true, threshold, level);
+    }
+
+    private ResponseCompression(boolean enabled, int threshold, int level) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Порог сжатия не может быть отрицательным");
+        }
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Уровень сжатия должен быть от -1 до 9: " + level);
+        }
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    /**
+     * @return настройки, при которых ответы не сжимаются
+     */
+    public static ResponseCompression disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Читает настройки из системных свойств: tracker.http.compression (false - без сжатия),
+     * tracker.http.compression.threshold (байты) и tracker.http.compression.level (-1..9).
+     */
+    public static ResponseCompression fromSystemProperties() {
+        if (!Boolean.parseBoolean(System.getProperty("tracker.http.compression", "true"))) {
+            return DISABLED;
+        }
+        return new ResponseCompression(
+                Integer.getInteger("tracker.http.compression.threshold", DEFAULT_THRESHOLD),
+                Integer.getInteger("tracker.http.compression.level", Deflater.DEFAULT_COMPRESSION));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Выбирает кодировку ответа по заголовку Accept-Encoding с учётом q-значений.
+     * При равных весах предпочитается gzip; "*" означает любую кодировку.
+     *
+     * @param acceptEncoding значение заголовка или null
+     * @return {@link #GZIP}, {@link #DEFLATE} или null, если ответ нужно отправить без сжатия
+     */
+    public String negotiate(String acceptEncoding) {
+        if (!enabled || acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP:
+                case "x-gzip":
+                    gzip = Math.max(gzip, q);
+                    break;
+                case DEFLATE:
+                    deflate = Math.max(deflate, q);
+                    break;
+                case "*":
+                    any = Math.max(any, q);
+                    break;
+                default:
+                    break;
+            }
+        }
+        // Явно указанная кодировка важнее "*", в том числе запрет через q=0
+        if (gzip < 0) gzip = any;
+        if (deflate < 0) deflate = any;
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+}
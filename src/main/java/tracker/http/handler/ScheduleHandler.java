@@ -0,0 +1,91 @@
+package tracker.http.handler;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import tracker.service.TaskManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Обработчик HTTP-запросов для планирования (эндпоинт /schedule).
+ * <p>
+ * GET /schedule/next-free?duration=&after=&before= возвращает самый ранний свободный интервал
+ * заданной длительности. duration задаётся в минутах или в формате ISO-8601 (PT1H30M),
+ * after и before - время ISO-8601; без after поиск идёт от текущего момента.
+ */
+public class ScheduleHandler extends BaseHttpHandler {
+    private final TaskManager manager;
+
+    public ScheduleHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String requestMethod = exchange.getRequestMethod();
+            String requestPath = exchange.getRequestURI().getPath();
+
+            if ("GET".equals(requestMethod) && "/schedule/next-free".equals(requestPath)) {
+                // GET /schedule/next-free
+                handleNextFree(exchange, parseQuery(exchange));
+            } else {
+                sendNotFound(exchange);
+            }
+        } catch (Exception generalException) {
+            handleException(exchange, generalException);
+        }
+    }
+
+    private void handleNextFree(HttpExchange exchange, Map<String, String> params) throws IOException {
+        Duration duration;
+        try {
+            duration = parseDuration(params.get("duration"));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            duration = null;
+        }
+        if (duration == null || duration.isZero() || duration.isNegative()) {
+            sendText(exchange, "Неверное значение duration", 400);
+            return;
+        }
+
+        LocalDateTime after;
+        LocalDateTime before;
+        try {
+            String afterParam = params.get("after");
+            after = afterParam == null || afterParam.isEmpty() ? LocalDateTime.now() : LocalDateTime.parse(afterParam);
+            String beforeParam = params.get("before");
+            before = beforeParam == null || beforeParam.isEmpty() ? null : LocalDateTime.parse(beforeParam);
+        } catch (DateTimeParseException e) {
+            sendText(exchange, "Неверный формат времени", 400);
+            return;
+        }
+
+        LocalDateTime start = manager.findNextFreeSlot(duration, after, before);
+        if (start == null) {
+            sendText(exchange, "Свободный интервал не найден", 404);
+            return;
+        }
+        JsonObject slot = new JsonObject();
+        slot.add("startTime", gson.toJsonTree(start));
+        slot.add("endTime", gson.toJsonTree(start.plus(duration)));
+        sendSuccess(exchange, gson.toJson(slot));
+    }
+
+    /**
+     * Разбирает длительность в минутах ("90") или в формате ISO-8601 ("PT1H30M").
+     */
+    static Duration parseDuration(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (value.charAt(0) == 'P' || value.charAt(0) == 'p') {
+            return Duration.parse(value);
+        }
+        return Duration.ofMinutes(Long.parseLong(value));
+    }
+}
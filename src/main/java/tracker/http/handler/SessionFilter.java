@@ -0,0 +1,47 @@
+package tracker.http.handler;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import tracker.service.SessionHistoryManager;
+
+import java.io.IOException;
+
+/**
+ * Фильтр, привязывающий поток обработки запроса к сессии истории просмотров.
+ * Сессия определяется заголовком {@value #SESSION_HEADER}; без заголовка используется
+ * {@link SessionHistoryManager#DEFAULT_SESSION}.
+ */
+public class SessionFilter extends Filter {
+    public static final String SESSION_HEADER = "X-Session-Id";
+    private static final int MAX_SESSION_ID_LENGTH = 128;
+
+    private final SessionHistoryManager sessions;
+
+    public SessionFilter(SessionHistoryManager sessions) {
+        this.sessions = sessions;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        if (sessionId == null || sessionId.isBlank()) {
+            sessionId = SessionHistoryManager.DEFAULT_SESSION;
+        } else if (sessionId.length() > MAX_SESSION_ID_LENGTH) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+
+        sessions.bind(sessionId);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            sessions.unbind();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Привязка истории просмотров к сессии клиента";
+    }
+}
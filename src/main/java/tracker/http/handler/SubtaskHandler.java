@@ -1,10 +1,10 @@
 package tracker.http.handler;
 
-import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import tracker.entity.Status;
 import tracker.entity.Subtask;
+import tracker.entity.TaskType;
 import tracker.service.TaskManager;
 import tracker.exceptions.ManagerSaveException; // Добавлен импорт исключения
 
@@ -34,14 +34,20 @@ public class SubtaskHandler extends BaseHttpHandler {
                 case "GET":
                     if (pathParts.length == 2) {
                         // GET /subtasks
-                        sendJsonResponse(exchange, manager.getAllSubtasks());
+                        long version = manager.getVersion(TaskManager.DataSet.SUBTASKS);
+                        if (!checkNotModified(exchange, version)) {
+                            sendCachedJson(exchange, version, manager::getAllSubtasks);
+                        }
                     } else if (pathParts.length == 3) {
                         // GET /subtasks/{id}
                         try {
                             int subtaskId = Integer.parseInt(pathParts[2]);
+                            long version = manager.getVersion(subtaskId);
                             Optional<Subtask> subtask = Optional.ofNullable(manager.getSubtask(subtaskId));
                             if (subtask.isPresent()) {
-                                sendJsonResponse(exchange, subtask.get());
+                                if (!checkNotModified(exchange, version)) {
+                                    sendJsonResponse(exchange, subtask.get());
+                                }
                             } else {
                                 sendNotFound(exchange);
                             }
@@ -54,38 +60,15 @@ public class SubtaskHandler extends BaseHttpHandler {
                     break;
                 case "POST":
                     // POST /subtasks
-                    String requestBody = new String(exchange.getRequestBody().readAllBytes());
-                    JsonObject jsonObject = gson.fromJson(requestBody, JsonObject.class);
-
-                    int subtaskId = 0;
-                    if (jsonObject.has("id") && !jsonObject.get("id").isJsonNull()) {
-                        subtaskId = jsonObject.get("id").getAsInt();
-                    }
-
-                    String subtaskName = jsonObject.get("name").getAsString();
-                    String subtaskDescription = jsonObject.get("description").getAsString();
-                    // Преобразуем строковый статус в enum Status
-                    String statusString = jsonObject.get("status").getAsString();
-                    Status subtaskStatus;
-                    try {
-                        subtaskStatus = Status.valueOf(statusString.toUpperCase()); // Преобразуем в верхний регистр для надежности
-                    } catch (IllegalArgumentException illegalArgumentException) {
-                        String errorMessage = String.format("Неверное значение статуса: %s", statusString);
-                        sendText(exchange, errorMessage, 400);
-                        return; // Прерываем обработку
-                    }
-                    int epicId = jsonObject.get("epicId").getAsInt();
-
-                    Duration subtaskDuration = null;
-                    if (jsonObject.has("duration") && !jsonObject.get("duration").isJsonNull()) {
-                        subtaskDuration = Duration.ofMillis(jsonObject.get("duration").getAsLong());
-                    }
-
-                    LocalDateTime subtaskStartTime = null;
-                    if (jsonObject.has("startTime") && !jsonObject.get("startTime").isJsonNull()) {
-                        // Предполагается, что время в формате ISO, как в LocalDateTimeTypeAdapter
-                        subtaskStartTime = LocalDateTime.parse(jsonObject.get("startTime").getAsString());
-                    }
+                    // Тело читается потоково сразу в подзадачу; отсутствие полей или неверный статус дают 400
+                    Subtask requestSubtask = (Subtask) readEntity(exchange, TaskType.SUBTASK);
+                    int subtaskId = requestSubtask.getId();
+                    String subtaskName = requestSubtask.getName();
+                    String subtaskDescription = requestSubtask.getDescription();
+                    Status subtaskStatus = requestSubtask.getStatus();
+                    int epicId = requestSubtask.getEpicId();
+                    Duration subtaskDuration = requestSubtask.getDuration();
+                    LocalDateTime subtaskStartTime = requestSubtask.getStartTime();
 
                     if (subtaskId == 0) {
                         // Создание новой подзадачи
@@ -100,7 +83,8 @@ public class SubtaskHandler extends BaseHttpHandler {
                         }
                     } else {
                         // Обновление существующей подзадачи
-                        Subtask existingSubtask = manager.getSubtask(subtaskId);
+                        // Проверка существования не должна попадать в историю просмотров
+                        Subtask existingSubtask = manager.peekSubtask(subtaskId);
                         if (existingSubtask != null) {
                             // Проверяем, изменился ли epicId
                             if (existingSubtask.getEpicId() != epicId) {
@@ -153,13 +137,11 @@ public class SubtaskHandler extends BaseHttpHandler {
                     sendNotFound(exchange);
             }
         } catch (JsonSyntaxException jsonException) {
-            sendText(exchange, "Неверный формат JSON", 400);
+            sendText(exchange, "Неверный формат JSON: " + jsonException.getMessage(), 400);
         } catch (NumberFormatException numberFormatException) {
             sendText(exchange, "Неверный формат ID", 400);
         } catch (Exception generalException) {
-            generalException.printStackTrace(); // Для отладки
-            String errorMessage = String.format("Ошибка сервера: %s", generalException.getMessage());
-            sendText(exchange, errorMessage, 500);
+            handleException(exchange, generalException);
         }
     }
 }
\ No newline at end of file
@@ -1,16 +1,18 @@
 package tracker.http.handler;
 
-import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import tracker.entity.Status;
 import tracker.entity.Task;
+import tracker.entity.TaskType;
 import tracker.service.TaskManager;
 import tracker.exceptions.ManagerSaveException;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -34,14 +36,20 @@ public class TaskHandler extends BaseHttpHandler {
                 case "GET":
                     if (pathParts.length == 2) {
                         // GET /tasks
-                        sendJsonResponse(exchange, manager.getAllTasks());
+                        long version = manager.getVersion(TaskManager.DataSet.TASKS);
+                        if (!checkNotModified(exchange, version)) {
+                            sendCachedJson(exchange, version, manager::getAllTasks);
+                        }
                     } else if (pathParts.length == 3) {
                         // GET /tasks/{id}
                         try {
                             int taskId = Integer.parseInt(pathParts[2]);
+                            long version = manager.getVersion(taskId);
                             Optional<Task> task = Optional.ofNullable(manager.getTask(taskId));
                             if (task.isPresent()) {
-                                sendJsonResponse(exchange, task.get());
+                                if (!checkNotModified(exchange, version)) {
+                                    sendCachedJson(exchange, version, task::get);
+                                }
                             } else {
                                 sendNotFound(exchange);
                             }
@@ -54,35 +62,30 @@ public class TaskHandler extends BaseHttpHandler {
                     break;
                 case "POST":
                     // POST /tasks
-                    String requestBody = new String(exchange.getRequestBody().readAllBytes());
-                    JsonObject jsonObject = gson.fromJson(requestBody, JsonObject.class);
-
-                    int taskId = 0;
-                    if (jsonObject.has("id") && !jsonObject.get("id").isJsonNull()) {
-                        taskId = jsonObject.get("id").getAsInt();
-                    }
-
-                    String taskName = jsonObject.get("name").getAsString();
-                    String taskDescription = jsonObject.get("description").getAsString();
-                    // Преобразуем строковый статус в enum Status
-                    String statusString = jsonObject.get("status").getAsString();
-                    Status taskStatus;
-                    try {
-                        taskStatus = Status.valueOf(statusString.toUpperCase()); // Преобразуем в верхний регистр для надежности
-                    } catch (IllegalArgumentException illegalArgumentException) {
-                        String errorMessage = String.format("Неверное значение статуса: %s", statusString);
-                        sendText(exchange, errorMessage, 400);
-                        return; // Прерываем обработку
-                    }
-
-                    Duration taskDuration = null;
-                    if (jsonObject.has("duration") && !jsonObject.get("duration").isJsonNull()) {
-                        taskDuration = Duration.ofMillis(jsonObject.get("duration").getAsLong());
-                    }
+                    // Тело читается потоково сразу в задачу; отсутствие полей или неверный статус дают 400
+                    Map<String, Boolean> flags = new HashMap<>();
+                    flags.put("autoPlace", false);
+                    Task requestTask = readEntity(exchange, TaskType.TASK, flags);
+                    int taskId = requestTask.getId();
+                    String taskName = requestTask.getName();
+                    String taskDescription = requestTask.getDescription();
+                    Status taskStatus = requestTask.getStatus();
+                    Duration taskDuration = requestTask.getDuration();
+                    LocalDateTime taskStartTime = requestTask.getStartTime();
 
-                    LocalDateTime taskStartTime = null;
-                    if (jsonObject.has("startTime") && !jsonObject.get("startTime").isJsonNull()) {
-                        taskStartTime = LocalDateTime.parse(jsonObject.get("startTime").getAsString());
+                    // autoPlace (поле тела или ?autoPlace=true): задача без времени начала ставится
+                    // в первый свободный интервал от текущего момента
+                    boolean autoPlace = flags.get("autoPlace")
+                            || Boolean.parseBoolean(parseQuery(exchange).get("autoPlace"));
+                    if (autoPlace && taskId == 0 && taskStartTime == null) {
+                        if (taskDuration == null || taskDuration.isZero() || taskDuration.isNegative()) {
+                            sendText(exchange, "Для автоматического размещения нужна продолжительность", 400);
+                            return;
+                        }
+                        Task placedTask = manager.createTaskInFreeSlot(taskName, taskDescription, taskStatus,
+                                taskDuration, LocalDateTime.now());
+                        sendCreated(exchange, placedTask);
+                        return;
                     }
 
                     if (taskId == 0) {
@@ -98,7 +101,8 @@ public class TaskHandler extends BaseHttpHandler {
                         }
                     } else {
                         // Обновление существующей задачи
-                        Task existingTask = manager.getTask(taskId);
+                        // Проверка существования не должна попадать в историю просмотров
+                        Task existingTask = manager.peekTask(taskId);
                         if (existingTask != null) {
                             // Создаем обновленную задачу с тем же ID
                             Task updatedTask = new Task(
@@ -142,13 +146,11 @@ public class TaskHandler extends BaseHttpHandler {
                     sendNotFound(exchange);
             }
         } catch (JsonSyntaxException jsonException) {
-            sendText(exchange, "Неверный формат JSON", 400);
+            sendText(exchange, "Неверный формат JSON: " + jsonException.getMessage(), 400);
         } catch (NumberFormatException numberFormatException) {
             sendText(exchange, "Неверный формат ID", 400);
         } catch (Exception generalException) {
-            generalException.printStackTrace(); // Для отладки
-            String errorMessage = String.format("Ошибка сервера: %s", generalException.getMessage());
-            sendText(exchange, errorMessage, 500);
+            handleException(exchange, generalException);
         }
     }
 }
\ No newline at end of file
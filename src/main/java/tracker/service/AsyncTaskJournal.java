@@ -0,0 +1,194 @@
+package tracker.service;
+
+import tracker.exceptions.ManagerSaveException;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Журнал изменений с групповой фиксацией (group commit).
+ * Записи ставятся в очередь и пишутся фоновым потоком: записи, поступившие
+ * в течение maxDelay после первой (но не более maxBatchSize), сбрасываются на диск одной операцией.
+ * Снимки состояния выполняются тем же потоком в порядке очереди.
+ */
+class AsyncTaskJournal extends TaskJournal {
+    private static final Object STOP = new Object();
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final Thread writer;
+    private volatile RuntimeException failure;
+    private volatile boolean closed;
+
+    /**
+     * Снимок состояния, выполняемый фоновым потоком после записи предшествующих записей.
+     */
+    private static class Checkpoint {
+        final Runnable snapshotWriter;
+
+        Checkpoint(Runnable snapshotWriter) {
+            this.snapshotWriter = snapshotWriter;
+        }
+    }
+
+    /**
+     * @param file         файл журнала
+     * @param maxDelay     максимальное время ожидания новых записей перед сбросом пакета
+     * @param maxBatchSize максимальное количество записей в одном пакете
+     */
+    AsyncTaskJournal(File file, Duration maxDelay, int maxBatchSize) {
+        super(file);
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Размер пакета должен быть положительным");
+        }
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.writer = new Thread(this::writeLoop, "task-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    boolean isAsynchronous() {
+        return true;
+    }
+
+    @Override
+    protected void doAppend(String record) {
+        ensureUsable();
+        queue.add(record);
+    }
+
+    @Override
+    protected void doAppendAll(List<String> batch) {
+        ensureUsable();
+        queue.addAll(batch);
+    }
+
+    @Override
+    protected void doCheckpoint(Runnable snapshotWriter) {
+        ensureUsable();
+        queue.add(new Checkpoint(snapshotWriter));
+    }
+
+    /**
+     * Барьер надёжности: возвращает управление, когда все ранее добавленные записи записаны в файл
+     * и синхронизированы с диском.
+     */
+    @Override
+    void flush() {
+        ensureUsable();
+        CountDownLatch barrier = new CountDownLatch(1);
+        queue.add(barrier);
+        try {
+            // Фоновый поток мог завершиться с ошибкой, не дойдя до барьера
+            while (!barrier.await(100, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание записи журнала прервано");
+        }
+        ensureUsable();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void ensureUsable() {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new ManagerSaveException("Журнал закрыт");
+        }
+    }
+
+    /**
+     * Цикл фонового потока. Любое завершение, кроме как по {@link #STOP}, записывается в failure:
+     * иначе ожидающие барьера вернулись бы так, будто их записи сохранены.
+     */
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>(maxBatchSize);
+        boolean stopped = false;
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item instanceof String) {
+                    // Собираем пакет, пока не истечёт задержка или не наберётся maxBatchSize записей
+                    batch.add((String) item);
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    item = null;
+                    while (batch.size() < maxBatchSize) {
+                        Object next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next instanceof String) {
+                            batch.add((String) next);
+                        } else {
+                            item = next;
+                            break;
+                        }
+                    }
+                    writeBatch(batch);
+                }
+                if (item == STOP) {
+                    stopped = true;
+                    return;
+                }
+                if (item instanceof Checkpoint) {
+                    Checkpoint checkpoint = (Checkpoint) item;
+                    super.doCheckpoint(checkpoint.snapshotWriter);
+                } else if (item instanceof CountDownLatch) {
+                    ((CountDownLatch) item).countDown();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new ManagerSaveException("Фоновая запись журнала прервана");
+        } catch (RuntimeException e) {
+            failure = e;
+        } catch (Error e) {
+            failure = new ManagerSaveException("Фоновая запись журнала завершилась с ошибкой", e);
+        } finally {
+            if (!stopped && failure == null) {
+                failure = new ManagerSaveException("Фоновая запись журнала остановлена");
+            }
+            // Освобождаем ожидающих барьера, чтобы они увидели ошибку
+            queue.forEach(item -> {
+                if (item instanceof CountDownLatch) {
+                    ((CountDownLatch) item).countDown();
+                }
+            });
+        }
+    }
+
+    private void writeBatch(List<String> batch) {
+        if (!batch.isEmpty()) {
+            writeRecords(batch);
+            batch.clear();
+        }
+    }
+}
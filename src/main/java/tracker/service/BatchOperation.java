@@ -0,0 +1,59 @@
+package tracker.service;
+
+import tracker.entity.Subtask;
+import tracker.entity.Task;
+
+/**
+ * Операция пакетного изменения для {@link TaskManager#applyBatch}.
+ * Создание задачи или подзадачи описывается черновиком, id которого не используется;
+ * удаление - идентификатором задачи, подзадачи или эпика.
+ */
+public class BatchOperation {
+    public enum Type {
+        CREATE_TASK,
+        CREATE_SUBTASK,
+        DELETE
+    }
+
+    private final Type type;
+    private final Task draft;
+    private final int id;
+
+    private BatchOperation(Type type, Task draft, int id) {
+        this.type = type;
+        this.draft = draft;
+        this.id = id;
+    }
+
+    /**
+     * @param draft черновик задачи; для {@link Subtask} создаётся подзадача в эпике draft.getEpicId()
+     */
+    public static BatchOperation create(Task draft) {
+        return new BatchOperation(draft instanceof Subtask ? Type.CREATE_SUBTASK : Type.CREATE_TASK, draft, 0);
+    }
+
+    /**
+     * @param id идентификатор задачи, подзадачи или эпика (вместе с его подзадачами)
+     */
+    public static BatchOperation delete(int id) {
+        return new BatchOperation(Type.DELETE, null, id);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return черновик создаваемой задачи или null для удаления
+     */
+    public Task getDraft() {
+        return draft;
+    }
+
+    /**
+     * @return идентификатор удаляемой сущности
+     */
+    public int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,191 @@
+package tracker.service;
+
+import tracker.entity.*;
+import tracker.exceptions.ManagerSaveException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Двоичный формат снимка состояния.
+ * <p>
+ * Заголовок файла (16 байт): сигнатура {@code TKB1}, версия (short), резерв (short),
+ * количество записей (int), резерв (int).
+ * <p>
+ * Запись: фиксированная часть (32 байта) - тип (byte), статус (byte), флаги наличия времени (byte),
+ * резерв (byte), id (int), id эпика (int), продолжительность в миллисекундах (long),
+ * время начала в секундах от эпохи UTC (long) и наносекунды (int);
+ * затем название и описание в виде длины (int) и байтов UTF-8.
+ * <p>
+ * Время хранится с точностью до наносекунд, чтобы преобразование CSV ↔ BINARY было без потерь.
+ */
+final class BinarySnapshot {
+    static final int MAGIC = 0x544B4231; // "TKB1"
+    private static final short VERSION = 1;
+    private static final int HAS_DURATION = 1;
+    private static final int HAS_START_TIME = 2;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Записывает снимок в поток.
+     *
+     * @param output   поток для записи
+     * @param tasks    задачи
+     * @param epics    эпики
+     * @param subtasks подзадачи
+     * @throws IOException при ошибке записи
+     */
+    static void write(OutputStream output, Collection<Task> tasks, Collection<Epic> epics,
+                      Collection<Subtask> subtasks) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(0);
+        data.writeInt(tasks.size() + epics.size() + subtasks.size());
+        data.writeInt(0);
+
+        for (Task task : tasks) {
+            writeRecord(data, TaskType.TASK, task, 0);
+        }
+        for (Epic epic : epics) {
+            writeRecord(data, TaskType.EPIC, epic, 0);
+        }
+        for (Subtask subtask : subtasks) {
+            writeRecord(data, TaskType.SUBTASK, subtask, subtask.getEpicId());
+        }
+        data.flush();
+    }
+
+    private static void writeRecord(DataOutputStream data, TaskType type, Task task, int epicId) throws IOException {
+        Duration duration = task.getDuration();
+        LocalDateTime startTime = task.getStartTime();
+        int flags = (duration != null ? HAS_DURATION : 0) | (startTime != null ? HAS_START_TIME : 0);
+
+        data.writeByte(type.ordinal());
+        data.writeByte(task.getStatus().ordinal());
+        data.writeByte(flags);
+        data.writeByte(0);
+        data.writeInt(task.getId());
+        data.writeInt(epicId);
+        data.writeLong(duration != null ? duration.toMillis() : 0);
+        data.writeLong(startTime != null ? startTime.toEpochSecond(ZoneOffset.UTC) : 0);
+        data.writeInt(startTime != null ? startTime.getNano() : 0);
+        writeString(data, task.getName());
+        writeString(data, task.getDescription());
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    /**
+     * Проверяет, начинается ли файл с сигнатуры двоичного снимка.
+     *
+     * @param header первые байты файла
+     * @return true для двоичного снимка
+     */
+    static boolean isBinary(ByteBuffer header) {
+        return header.remaining() >= Integer.BYTES && header.getInt(header.position()) == MAGIC;
+    }
+
+    /**
+     * Читает снимок, отображая файл в память, и передаёт сущности получателю.
+     *
+     * @param file файл снимка
+     * @param sink получатель восстановленных сущностей
+     */
+    static void read(File file, Consumer<Task> sink) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerSaveException("Файл снимка слишком большой для отображения в память");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new ManagerSaveException("Файл не является двоичным снимком");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new ManagerSaveException("Неподдерживаемая версия двоичного снимка: " + version);
+            }
+            buffer.getShort();
+            int count = buffer.getInt();
+            buffer.getInt();
+
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                TaskType type = TYPES[buffer.get()];
+                Status status = STATUSES[buffer.get()];
+                int flags = buffer.get();
+                buffer.get();
+                int id = buffer.getInt();
+                int epicId = buffer.getInt();
+                long durationMillis = buffer.getLong();
+                long startSecond = buffer.getLong();
+                int startNano = buffer.getInt();
+
+                int length = buffer.getInt();
+                if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                String name = readString(buffer, scratch, length);
+                length = buffer.getInt();
+                if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                String description = readString(buffer, scratch, length);
+
+                Duration duration = (flags & HAS_DURATION) != 0 ? Duration.ofMillis(durationMillis) : null;
+                LocalDateTime startTime = (flags & HAS_START_TIME) != 0
+                        ? LocalDateTime.ofEpochSecond(startSecond, startNano, ZoneOffset.UTC) : null;
+
+                switch (type) {
+                    case TASK:
+                        sink.accept(new Task(id, name, description, status, duration, startTime));
+                        break;
+                    case EPIC:
+                        sink.accept(new Epic(id, name, description));
+                        break;
+                    case SUBTASK:
+                        sink.accept(new Subtask(id, name, description, status, epicId, duration, startTime));
+                        break;
+                    default:
+                        throw new ManagerSaveException("Неизвестный тип задачи: " + type);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof ManagerSaveException) {
+                throw (ManagerSaveException) e;
+            }
+            throw new ManagerSaveException("Ошибка загрузки двоичного снимка");
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, byte[] scratch, int length) {
+        if (length < 0) {
+            return null;
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,188 @@
+package tracker.service;
+
+import tracker.entity.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасная история просмотров для частых одновременных вызовов {@link #add}.
+ * <p>
+ * Просмотры не пишутся в упорядоченную историю сразу, а попадают в один из кольцевых буферов
+ * (полосу), выбираемый по потоку, поэтому потоки почти не конкурируют между собой.
+ * Буферы сливаются в обычную историю (delegate) под блокировкой: когда полоса заполнена наполовину,
+ * при переполнении, а также перед {@link #remove} и {@link #getHistory}.
+ * Каждый просмотр получает глобальный порядковый номер. Слияние забирает из полос все занятые ячейки,
+ * дожидаясь записи тех, что писатель уже занял, и применяет просмотры с номерами, выданными до начала
+ * слияния, в порядке номеров; более поздние откладываются до следующего слияния. Поэтому если вызов add
+ * завершился до начала другого, их просмотры попадают в историю в этом порядке (порядок одновременных
+ * вызовов не определён), а {@link #getHistory} включает все просмотры, add которых завершились до него.
+ * В отличие от буферов чтения в кешах, просмотры никогда не отбрасываются.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int STRIPE_SIZE = 128;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    private static final int DRAIN_THRESHOLD = STRIPE_SIZE / 2;
+    private static final int MAX_STRIPES = 64;
+
+    private final HistoryManager delegate;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final List<View> drained = new ArrayList<>();
+
+    /**
+     * Просмотр, ожидающий слияния в историю.
+     */
+    private static class View {
+        final long sequence;
+        final Task task;
+
+        View(long sequence, Task task) {
+            this.sequence = sequence;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Кольцевой буфер с несколькими писателями и одним читателем (читатель держит drainLock).
+     */
+    private static class Stripe {
+        final AtomicReferenceArray<View> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+        final AtomicLong writeIndex = new AtomicLong();
+        volatile long readIndex;
+
+        boolean offer(View view) {
+            while (true) {
+                long index = writeIndex.get();
+                if (index - readIndex >= STRIPE_SIZE) {
+                    return false;
+                }
+                if (writeIndex.compareAndSet(index, index + 1)) {
+                    slots.lazySet((int) index & STRIPE_MASK, view);
+                    return true;
+                }
+            }
+        }
+
+        int pending() {
+            return (int) (writeIndex.get() - readIndex);
+        }
+
+        void drainTo(List<View> target) {
+            long index = readIndex;
+            long end = writeIndex.get();
+            for (; index < end; index++) {
+                int slot = (int) index & STRIPE_MASK;
+                View view;
+                int spins = 0;
+                while ((view = slots.get(slot)) == null) {
+                    // Писатель занял ячейку, но ещё не записал просмотр: между этими шагами несколько инструкций,
+                    // поэтому ждём, а не откладываем - иначе все просмотры за этой ячейкой ушли бы в другое слияние
+                    if (++spins < 100) {
+                        Thread.onSpinWait();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+                slots.lazySet(slot, null);
+                target.add(view);
+            }
+            readIndex = index;
+        }
+    }
+
+    /**
+     * @param delegate упорядоченная история, в которую сливаются буферы; доступ к ней идёт только под блокировкой
+     */
+    public ConcurrentHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+        int count = Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+        View view = new View(sequence.getAndIncrement(), task);
+        Stripe stripe = stripeForCurrentThread();
+        while (!stripe.offer(view)) {
+            // Полоса переполнена: сливаем буферы сами, ожидая блокировку
+            drainLock.lock();
+            try {
+                drainBuffers();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+        if (stripe.pending() >= DRAIN_THRESHOLD && drainLock.tryLock()) {
+            try {
+                drainBuffers();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            delegate.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * @return снимок истории, включающий все просмотры, вызовы add которых завершились до вызова
+     */
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return delegate.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private Stripe stripeForCurrentThread() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    private void drainBuffers() {
+        // Номера от limit выданы после начала слияния. Просмотр, завершившийся раньше такого, мог попасть
+        // в уже пройденную полосу, поэтому они ждут следующего слияния, чтобы не обогнать его
+        long limit = sequence.get();
+        for (Stripe stripe : stripes) {
+            stripe.drainTo(drained);
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        drained.sort(Comparator.comparingLong(view -> view.sequence));
+        int applied = 0;
+        for (View view : drained) {
+            if (view.sequence >= limit) {
+                break;
+            }
+            delegate.add(view.task);
+            applied++;
+        }
+        drained.subList(0, applied).clear();
+    }
+}
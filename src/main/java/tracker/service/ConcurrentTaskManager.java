@@ -0,0 +1,222 @@
+package tracker.service;
+
+import tracker.entity.Epic;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+import tracker.entity.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасный менеджер задач для многопоточного HTTP-сервера.
+ * <p>
+ * Все изменения выполняются под блокировкой записи: изменение подзадачи затрагивает
+ * сразу подзадачи, эпик и индекс расписания, поэтому отдельные блокировки по видам
+ * сущностей всё равно пришлось бы захватывать вместе.
+ * Задачи и подзадачи при обновлении заменяются целиком, поэтому их чтение идёт
+ * из {@link ConcurrentHashMap} без блокировок. Эпики изменяются на месте,
+ * поэтому читаются под блокировкой чтения и возвращаются в виде снимков.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger idSequence = new AtomicInteger(1);
+
+    public ConcurrentTaskManager() {
+        this(Managers.getConcurrentHistory());
+    }
+
+    /**
+     * @param historyManager потокобезопасный менеджер истории просмотров
+     */
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        super(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), historyManager);
+    }
+
+    @Override
+    protected int generateId() {
+        return idSequence.getAndIncrement();
+    }
+
+    // Чтение без блокировок: getTask, getSubtask, peekTask, peekSubtask, getAllTasks, getAllSubtasks, getHistory,
+    // getVersion(DataSet)
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(() -> {
+            List<Epic> result = new ArrayList<>(epics.size());
+            epics.values().forEach(epic -> result.add(new Epic(epic)));
+            return result;
+        });
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return read(() -> {
+            Epic epic = epics.get(id);
+            if (epic == null) return null;
+            Epic snapshot = new Epic(epic);
+            historyManager.add(snapshot);
+            touch(DataSet.HISTORY);
+            return snapshot;
+        });
+    }
+
+    @Override
+    boolean historyHoldsLiveEpics() {
+        // В историю попадают снимки эпиков, изменение эпика её не затрагивает
+        return false;
+    }
+
+    @Override
+    public Epic peekEpic(int id) {
+        return read(() -> {
+            Epic epic = epics.get(id);
+            return epic != null ? new Epic(epic) : null;
+        });
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        return read(() -> super.getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(super::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return read(() -> super.getPrioritizedTasks(from, to, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime cursorStart, int cursorId, LocalDateTime to, int limit) {
+        return read(() -> super.getPrioritizedTasksAfter(cursorStart, cursorId, to, limit));
+    }
+
+    @Override
+    public boolean hasTimeConflict(Task newTask) {
+        return read(() -> super.hasTimeConflict(newTask));
+    }
+
+    @Override
+    public LocalDateTime findNextFreeSlot(Duration duration, LocalDateTime after, LocalDateTime before) {
+        return read(() -> super.findNextFreeSlot(duration, after, before));
+    }
+
+    @Override
+    public long getVersion(int id) {
+        // Версия эпика меняется на месте под блокировкой записи
+        return read(() -> super.getVersion(id));
+    }
+
+    // Изменения под блокировкой записи
+
+    @Override
+    public void deleteAllTasks() {
+        write(super::deleteAllTasks);
+    }
+
+    @Override
+    public Task createTask(String name, String description, Status status,
+                           Duration duration, LocalDateTime startTime) {
+        return write(() -> super.createTask(name, description, status, duration, startTime));
+    }
+
+    @Override
+    public Task createTaskInFreeSlot(String name, String description, Status status,
+                                     Duration duration, LocalDateTime after) {
+        // Найденный интервал не должен занять другой поток до создания задачи
+        return write(() -> super.createTaskInFreeSlot(name, description, status, duration, after));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> super.updateTask(task));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        write(() -> super.deleteTask(id));
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(super::deleteAllSubtasks);
+    }
+
+    @Override
+    public Subtask createSubtask(String name, String description, Status status,
+                                 int epicId, Duration duration, LocalDateTime startTime) {
+        return write(() -> super.createSubtask(name, description, status, epicId, duration, startTime));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        write(() -> super.updateSubtask(subtask));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        write(() -> super.deleteSubtask(id));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(super::deleteAllEpics);
+    }
+
+    @Override
+    public Epic createEpic(String name, String description) {
+        return write(() -> new Epic(super.createEpic(name, description)));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> super.updateEpic(epic));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        write(() -> super.deleteEpic(id));
+    }
+
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        // Проверка и применение пакета под одной блокировкой, поэтому другие потоки не видят его частично
+        return write(() -> super.applyBatch(operations));
+    }
+
+    private <T> T read(Supplier<T> action) {
+        return locked(lock.readLock(), action);
+    }
+
+    private <T> T write(Supplier<T> action) {
+        return locked(lock.writeLock(), action);
+    }
+
+    private void write(Runnable action) {
+        locked(lock.writeLock(), () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
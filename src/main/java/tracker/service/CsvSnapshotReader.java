@@ -0,0 +1,384 @@
+package tracker.service;
+
+import tracker.entity.*;
+import tracker.exceptions.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый разбор CSV-снимка {@link FileBackedTaskManager}.
+ * <p>
+ * Файл читается через канал блоками фиксированного размера, строки разбираются прямо в буфере:
+ * без {@code String.split}, регулярных выражений и промежуточных строк для чисел, типов и статусов.
+ * Строки создаются только для названия и описания. Первая строка файла считается заголовком.
+ * <p>
+ * Для больших файлов {@link #readParallel} делит файл на части по границам строк
+ * и разбирает их параллельно в {@link ForkJoinPool}.
+ */
+final class CsvSnapshotReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MIN_CHUNK_SIZE = 1 << 16;
+    private static final long MAX_CHUNK_SIZE = 1 << 28;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final byte[][] TYPE_NAMES = names(TYPES);
+    private static final Status[] STATUSES = Status.values();
+    private static final byte[][] STATUS_NAMES = names(STATUSES);
+
+    private final Consumer<Task> sink;
+    private byte[] scratch = new byte[128];
+
+    /**
+     * @param sink получатель разобранных сущностей
+     */
+    CsvSnapshotReader(Consumer<Task> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Читает CSV-снимок и передаёт сущности получателю по мере разбора.
+     *
+     * @param file файл снимка
+     * @param sink получатель разобранных сущностей
+     */
+    static void read(File file, Consumer<Task> sink) {
+        new CsvSnapshotReader(sink).readFile(file);
+    }
+
+    /**
+     * Читает CSV-снимок, разбирая части файла параллельно.
+     * Сущности передаются получателю в порядке следования в файле из вызывающего потока.
+     *
+     * @param file файл снимка
+     * @param pool пул, в котором разбираются части файла
+     * @param sink получатель разобранных сущностей
+     */
+    static void readParallel(File file, ForkJoinPool pool, Consumer<Task> sink) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = lineEnd(channel, 0, size);
+            long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE,
+                    (size - start) / ((long) pool.getParallelism() * CHUNKS_PER_THREAD) + 1));
+
+            List<ForkJoinTask<List<Task>>> chunks = new ArrayList<>();
+            while (start < size) {
+                long chunkStart = start;
+                long chunkEnd = chunkStart + chunkSize >= size ? size : lineEnd(channel, chunkStart + chunkSize, size);
+                chunks.add(pool.submit(() -> parseChunk(channel, chunkStart, chunkEnd)));
+                start = chunkEnd;
+            }
+            for (ForkJoinTask<List<Task>> chunk : chunks) {
+                chunk.join().forEach(sink);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки из файла");
+        }
+    }
+
+    private static List<Task> parseChunk(FileChannel channel, long start, long end) {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Строка снимка слишком длинная");
+        }
+        List<Task> parsed = new ArrayList<>();
+        try {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            CsvSnapshotReader reader = new CsvSnapshotReader(parsed::add);
+            int limit = buffer.limit();
+            int lineStart = reader.parseLines(buffer, 0, limit, start);
+            if (lineStart < limit) {
+                reader.parseLine(buffer, lineStart, limit, start + lineStart);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки из файла");
+        }
+        return parsed;
+    }
+
+    /**
+     * @return позиция сразу после ближайшего перевода строки, начиная с position, или размер файла
+     */
+    private static long lineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private void readFile(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long offset = 0;
+            boolean header = true;
+            while (true) {
+                int read = channel.read(buffer);
+                buffer.flip();
+                int limit = buffer.limit();
+                int lineStart = 0;
+                if (header) {
+                    for (int i = 0; i < limit; i++) {
+                        if (buffer.get(i) == '\n') {
+                            header = false;
+                            lineStart = i + 1;
+                            break;
+                        }
+                    }
+                }
+                if (!header) {
+                    lineStart = parseLines(buffer, lineStart, limit, offset);
+                }
+                if (read < 0) {
+                    // Последняя строка без перевода строки
+                    if (lineStart < limit && !header) {
+                        parseLine(buffer, lineStart, limit, offset + lineStart);
+                    }
+                    return;
+                }
+                offset += lineStart;
+                buffer.position(lineStart);
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    // Строка длиннее буфера
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки из файла");
+        }
+    }
+
+    /**
+     * Разбирает все завершённые строки в диапазоне буфера.
+     *
+     * @param buffer буфер с содержимым файла
+     * @param from   начало первой строки
+     * @param limit  конец данных в буфере
+     * @param offset позиция начала буфера в файле
+     * @return начало незавершённой последней строки или limit
+     */
+    int parseLines(ByteBuffer buffer, int from, int limit, long offset) {
+        int lineStart = from;
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                parseLine(buffer, lineStart, i, offset + lineStart);
+                lineStart = i + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    /**
+     * Разбирает одну строку снимка и передаёт сущность получателю.
+     *
+     * @param buffer   буфер с содержимым файла
+     * @param from     начало строки (включительно)
+     * @param to       конец строки (не включая перевод строки)
+     * @param position позиция строки в файле для сообщения об ошибке
+     */
+    void parseLine(ByteBuffer buffer, int from, int to, long position) {
+        if (to > from && buffer.get(to - 1) == '\r') {
+            to--;
+        }
+        if (to == from) {
+            return;
+        }
+        try {
+            int end = nextField(buffer, from, to);
+            int id = parseInt(buffer, from, end);
+            from = end + 1;
+            end = nextField(buffer, from, to);
+            TaskType type = TYPES[match(buffer, from, end, TYPE_NAMES)];
+            from = end + 1;
+            end = nextField(buffer, from, to);
+            String name = string(buffer, from, end);
+            from = end + 1;
+            end = nextField(buffer, from, to);
+            Status status = STATUSES[match(buffer, from, end, STATUS_NAMES)];
+            from = end + 1;
+            end = nextField(buffer, from, to);
+            String description = string(buffer, from, end);
+            from = end + 1;
+            end = nextField(buffer, from, to);
+            Duration duration = end == from ? null : Duration.ofMinutes(parseLong(buffer, from, end));
+            from = end + 1;
+            end = nextField(buffer, from, to);
+            LocalDateTime startTime = end == from ? null : parseDateTime(buffer, from, end);
+
+            switch (type) {
+                case TASK:
+                    sink.accept(new Task(id, name, description, status, duration, startTime));
+                    break;
+                case EPIC:
+                    sink.accept(new Epic(id, name, description));
+                    break;
+                case SUBTASK:
+                    from = end + 1;
+                    end = nextField(buffer, from, to);
+                    int epicId = parseInt(buffer, from, end);
+                    sink.accept(new Subtask(id, name, description, status, epicId, duration, startTime));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный тип задачи: " + type);
+            }
+        } catch (RuntimeException e) {
+            throw new ManagerSaveException("Некорректная запись снимка в позиции " + position);
+        }
+    }
+
+    private static int nextField(ByteBuffer buffer, int from, int to) {
+        if (from > to) {
+            throw new IllegalArgumentException("Недостаточно полей в строке");
+        }
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == ',') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int parseInt(ByteBuffer buffer, int from, int to) {
+        long value = parseLong(buffer, from, to);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Число вне диапазона int");
+        }
+        return (int) value;
+    }
+
+    private static long parseLong(ByteBuffer buffer, int from, int to) {
+        boolean negative = from < to && buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to || to - i > 18) {
+            throw new NumberFormatException("Некорректное число");
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            value = value * 10 + digit(buffer, i);
+        }
+        return negative ? -value : value;
+    }
+
+    private static int digit(ByteBuffer buffer, int index) {
+        int digit = buffer.get(index) - '0';
+        if (digit < 0 || digit > 9) {
+            throw new NumberFormatException("Ожидалась цифра");
+        }
+        return digit;
+    }
+
+    private static int match(ByteBuffer buffer, int from, int to, byte[][] names) {
+        int length = to - from;
+        for (int n = 0; n < names.length; n++) {
+            byte[] name = names[n];
+            if (name.length != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && buffer.get(from + i) == name[i]) {
+                i++;
+            }
+            if (i == length) {
+                return n;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение перечисления");
+    }
+
+    private String string(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Разбирает время в формате {@link LocalDateTime#toString()}: {@code yyyy-MM-ddTHH:mm[:ss[.n...]]}.
+     * Нестандартные значения (например, год вне диапазона 0000-9999) разбираются через {@link LocalDateTime#parse}.
+     */
+    private LocalDateTime parseDateTime(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (length >= 16 && buffer.get(from + 4) == '-' && buffer.get(from + 7) == '-'
+                && buffer.get(from + 10) == 'T' && buffer.get(from + 13) == ':'
+                && isDigits(buffer, from, 4) && isDigits(buffer, from + 5, 2) && isDigits(buffer, from + 8, 2)
+                && isDigits(buffer, from + 11, 2) && isDigits(buffer, from + 14, 2)) {
+            int year = number(buffer, from, 4);
+            int month = number(buffer, from + 5, 2);
+            int day = number(buffer, from + 8, 2);
+            int hour = number(buffer, from + 11, 2);
+            int minute = number(buffer, from + 14, 2);
+            if (length == 16) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+            if (length >= 19 && buffer.get(from + 16) == ':' && isDigits(buffer, from + 17, 2)) {
+                int second = number(buffer, from + 17, 2);
+                if (length == 19) {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                }
+                int fraction = length - 20;
+                if (buffer.get(from + 19) == '.' && fraction >= 1 && fraction <= 9
+                        && isDigits(buffer, from + 20, fraction)) {
+                    int nano = number(buffer, from + 20, fraction);
+                    for (int i = fraction; i < 9; i++) {
+                        nano *= 10;
+                    }
+                    return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+                }
+            }
+        }
+        return LocalDateTime.parse(string(buffer, from, to));
+    }
+
+    private static boolean isDigits(ByteBuffer buffer, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int number(ByteBuffer buffer, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            value = value * 10 + (buffer.get(i) - '0');
+        }
+        return value;
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+}
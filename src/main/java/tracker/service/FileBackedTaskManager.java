@@ -4,17 +4,40 @@ import tracker.entity.*;
 import tracker.exceptions.ManagerSaveException;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Менеджер задач с сохранением состояния в файл (CSV формат).
+ * Менеджер задач с сохранением состояния в файл (CSV или двоичный формат, см. {@link SnapshotFormat}).
  * Наследует функциональность InMemoryTaskManager и добавляет сохранение в файл.
+ * При загрузке формат снимка определяется автоматически по сигнатуре файла.
+ * <p>
+ * В обычном режиме после каждой операции файл перезаписывается целиком.
+ * В режиме журнала каждая операция дописывает одну запись в {@link TaskJournal},
+ * а полный снимок в CSV-файл записывается раз в snapshotInterval операций.
+ * В асинхронном режиме журнал пишет фоновый поток, объединяя записи в пакеты;
+ * {@link #flush()} дожидается записи всех предыдущих операций.
  */
 public class FileBackedTaskManager extends InMemoryTaskManager {
+    private static final String HEADER = "id,type,name,status,description,duration,startTime,epic\n";
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
     private final File file;
+    private final SnapshotFormat format;
+    private final TaskJournal journal;
+    private final int snapshotInterval;
+    // Записи операций текущего пакета; сохраняются одним действием после его применения, вне пакета - null
+    private List<String> pendingRecords;
 
     /**
      * Создает менеджер с привязкой к файлу для автосохранения.
@@ -22,30 +45,264 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
      * @param file файл для хранения данных (если не существует, будет создан).
      */
     public FileBackedTaskManager(File file) {
+        this(file, SnapshotFormat.CSV);
+    }
+
+    /**
+     * Создает менеджер с привязкой к файлу для автосохранения в заданном формате.
+     *
+     * @param file   файл для хранения данных (если не существует, будет создан).
+     * @param format формат снимка
+     */
+    public FileBackedTaskManager(File file, SnapshotFormat format) {
         this.file = file;
+        this.format = format;
+        this.journal = null;
+        this.snapshotInterval = 0;
+    }
+
+    /**
+     * Создает менеджер в режиме журнала. Существующие снимок и журнал очищаются.
+     *
+     * @param file             файл снимка состояния (CSV)
+     * @param journalFile      файл журнала изменений
+     * @param snapshotInterval количество операций, после которого записывается снимок и очищается журнал
+     */
+    public FileBackedTaskManager(File file, File journalFile, int snapshotInterval) {
+        this(file, new TaskJournal(journalFile), snapshotInterval, true);
+    }
+
+    /**
+     * Создает менеджер в режиме асинхронного журнала. Существующие снимок и журнал очищаются.
+     *
+     * @param file             файл снимка состояния (CSV)
+     * @param journalFile      файл журнала изменений
+     * @param snapshotInterval количество операций, после которого записывается снимок и очищается журнал
+     * @param maxFlushDelay    максимальное время накопления пакета перед записью
+     * @param maxBatchSize     максимальное количество записей в пакете
+     */
+    public FileBackedTaskManager(File file, File journalFile, int snapshotInterval,
+                                 Duration maxFlushDelay, int maxBatchSize) {
+        this(file, new AsyncTaskJournal(journalFile, maxFlushDelay, maxBatchSize), snapshotInterval, true);
+    }
+
+    private FileBackedTaskManager(File file, TaskJournal journal, int snapshotInterval, boolean fresh) {
+        if (snapshotInterval <= 0) {
+            journal.close();
+            throw new IllegalArgumentException("Интервал снимков должен быть положительным");
+        }
+        this.file = file;
+        this.format = SnapshotFormat.CSV;
+        this.snapshotInterval = snapshotInterval;
+        this.journal = journal;
+        if (fresh) {
+            checkpoint();
+        }
     }
 
     /**
      * Сохраняет текущее состояние менеджера в файл.
-     * Вызывается автоматически после каждой модифицирующей операции.
+     * В обычном режиме вызывается автоматически после каждой модифицирующей операции.
+     * Снимок пишется во временный файл, синхронизируется с диском и затем атомарно заменяет основной.
      */
     protected void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            writer.write("id,type,name,status,description,duration,startTime,epic\n");
+        File tempFile = tempSnapshotFile();
+        try (FileChannel channel = openTempSnapshot(tempFile)) {
+            writeSnapshot(Channels.newOutputStream(channel));
+            syncFile(channel);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл");
+        }
+        replaceSnapshot(tempFile);
+    }
 
-            // Сохраняем все типы задач
-            for (Task task : getAllTasks()) {
-                writer.write(toString(task) + "\n");
-            }
-            for (Epic epic : getAllEpics()) {
-                writer.write(toString(epic) + "\n");
-            }
-            for (Subtask subtask : getAllSubtasks()) {
-                writer.write(toString(subtask) + "\n");
+    private void writeSnapshot(OutputStream output) throws IOException {
+        if (format == SnapshotFormat.BINARY) {
+            BinarySnapshot.write(output, getAllTasks(), getAllEpics(), getAllSubtasks());
+            return;
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+
+        // Сохраняем все типы задач
+        for (Task task : getAllTasks()) {
+            writer.write(toString(task) + "\n");
+        }
+        for (Epic epic : getAllEpics()) {
+            writer.write(toString(epic) + "\n");
+        }
+        for (Subtask subtask : getAllSubtasks()) {
+            writer.write(toString(subtask) + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Записывает заранее подготовленное содержимое снимка.
+     * Используется фоновым потоком асинхронного журнала.
+     *
+     * @param content содержимое снимка
+     */
+    private void writeSnapshot(byte[] content) {
+        File tempFile = tempSnapshotFile();
+        try (FileChannel channel = openTempSnapshot(tempFile)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
             }
+            syncFile(channel);
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка сохранения в файл");
         }
+        replaceSnapshot(tempFile);
+    }
+
+    private File tempSnapshotFile() {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    private static FileChannel openTempSnapshot(File tempFile) throws IOException {
+        return FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Заменяет основной снимок временным и синхронизирует каталог, чтобы переименование пережило
+     * отключение питания: только после этого журнал до снимка можно очищать.
+     */
+    private void replaceSnapshot(File tempFile) {
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл");
+        }
+        syncDirectory(file.getAbsoluteFile().getParentFile().toPath());
+    }
+
+    /**
+     * Синхронизирует содержимое и метаданные файла с диском.
+     */
+    void syncFile(FileChannel channel) throws IOException {
+        channel.force(true);
+    }
+
+    /**
+     * Синхронизирует каталог с диском, фиксируя создание и переименование файлов в нём.
+     * В Windows каталог нельзя открыть как файл, а переименование фиксируется самой файловой системой,
+     * поэтому там шаг пропускается.
+     */
+    void syncDirectory(Path directory) {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка синхронизации каталога снимка");
+        }
+    }
+
+    /**
+     * Записывает полный снимок состояния и очищает журнал.
+     * Для асинхронного журнала снимок готовится в текущем потоке, а записывается фоновым.
+     */
+    private void checkpoint() {
+        if (journal.isAsynchronous()) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try {
+                writeSnapshot(content);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка сохранения в файл");
+            }
+            byte[] snapshot = content.toByteArray();
+            journal.checkpoint(() -> writeSnapshot(snapshot));
+        } else {
+            journal.checkpoint(this::save);
+        }
+    }
+
+    /**
+     * Фиксирует изменение: в обычном режиме перезаписывает файл,
+     * в режиме журнала дописывает запись и при необходимости делает снимок.
+     *
+     * @param record запись журнала
+     */
+    private void persist(String record) {
+        if (pendingRecords != null) {
+            pendingRecords.add(record);
+            return;
+        }
+        if (journal == null) {
+            save();
+            return;
+        }
+        journal.append(record);
+        if (journal.size() >= snapshotInterval) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Фиксирует все изменения пакета: в обычном режиме файл перезаписывается один раз,
+     * в режиме журнала записи дописываются одной операцией записи.
+     *
+     * @param records записи журнала в порядке операций
+     */
+    private void persistAll(List<String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (journal == null) {
+            save();
+            return;
+        }
+        journal.appendAll(records);
+        if (journal.size() >= snapshotInterval) {
+            checkpoint();
+        }
+    }
+
+    private String putRecord(Task task) {
+        return TaskJournal.PUT + "," + toString(task);
+    }
+
+    private static String deleteRecord(int id, Collection<Integer> cascadeIds) {
+        StringBuilder record = new StringBuilder().append(TaskJournal.DELETE).append(',').append(id);
+        for (int cascadeId : cascadeIds) {
+            record.append(',').append(cascadeId);
+        }
+        return record.toString();
+    }
+
+    private static String clearRecord(TaskType type) {
+        return TaskJournal.CLEAR + "," + type.name();
+    }
+
+    /**
+     * Барьер надёжности: дожидается записи на диск всех предыдущих операций.
+     * В синхронных режимах операции уже записаны, поэтому метод ничего не делает.
+     */
+    public void flush() {
+        if (journal != null) {
+            journal.flush();
+        }
+    }
+
+    /**
+     * @return метрики записи журнала или null, если менеджер работает без журнала
+     */
+    public PersistenceStats getPersistenceStats() {
+        return journal != null ? journal.getStats() : null;
+    }
+
+    /**
+     * Записывает оставшиеся операции и закрывает журнал. В обычном режиме ничего не делает.
+     */
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
     }
 
     /**
@@ -91,7 +348,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
      * @return задача
      */
     private static Task fromString(String value) {
-        String[] parts = value.split(",");
+        String[] parts = value.split(",", -1);
         int id = Integer.parseInt(parts[0]);
         TaskType type = TaskType.valueOf(parts[1]);
         String name = parts[2];
@@ -121,124 +378,287 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
      * @throws ManagerSaveException если файл не существует или содержит некорректные данные
      */
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        return loadFromFile(file, detectFormat(file));
+    }
 
-        try {
-            String content = Files.readString(file.toPath());
-            if (content.isEmpty() || content.equals("id,type,name,status,description,duration,startTime,epic\n")) {
-                return manager;
-            }
+    /**
+     * Загружает данные менеджера из файла; дальнейшие изменения сохраняются в заданном формате.
+     *
+     * @param file   файл с сохраненными данными (CSV или двоичный)
+     * @param format формат, в котором менеджер будет сохранять снимки
+     * @return восстановленный FileBackedTaskManager
+     */
+    public static FileBackedTaskManager loadFromFile(File file, SnapshotFormat format) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, format);
+        manager.loadSnapshot(file);
+        manager.restoreDerivedState();
+        return manager;
+    }
 
-            String[] lines = content.split("\n");
-            // Пропускаем заголовок
-            for (int i = 1; i < lines.length; i++) {
-                Task task = fromString(lines[i]);
-                if (task instanceof Epic) {
-                    manager.epics.put(task.getId(), (Epic) task);
-                } else if (task instanceof Subtask) {
-                    manager.subtasks.put(task.getId(), (Subtask) task);
-                } else {
-                    manager.tasks.put(task.getId(), task);
-                }
+    /**
+     * Загружает данные менеджера из большого CSV-файла, разбирая его части параллельно.
+     * Разобранные сущности объединяются в хранилища в порядке файла, после чего связи эпиков
+     * и список приоритетов восстанавливаются за один проход.
+     * Двоичный снимок читается последовательно: его записи не выровнены по строкам.
+     *
+     * @param file        файл с сохраненными данными
+     * @param parallelism количество потоков разбора
+     * @return восстановленный FileBackedTaskManager
+     */
+    public static FileBackedTaskManager loadFromFileParallel(File file, int parallelism) {
+        SnapshotFormat format = detectFormat(file);
+        if (format == SnapshotFormat.BINARY) {
+            return loadFromFile(file, format);
+        }
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, format);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            CsvSnapshotReader.readParallel(file, pool, manager::putLoaded);
+        } finally {
+            pool.shutdown();
+        }
+        manager.restoreDerivedState();
+        return manager;
+    }
 
-                // Обновляем nextId
-                if (task.getId() >= manager.nextId) {
-                    manager.nextId = task.getId() + 1;
-                }
-            }
+    /**
+     * Преобразует снимок из одного формата в другой.
+     *
+     * @param source       исходный файл снимка (формат определяется автоматически)
+     * @param target       файл для записи преобразованного снимка
+     * @param targetFormat формат результата
+     */
+    public static void convertSnapshot(File source, File target, SnapshotFormat targetFormat) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(target, targetFormat);
+        manager.loadSnapshot(source);
+        manager.restoreDerivedState();
+        manager.save();
+    }
 
-            // Восстанавливаем связи подзадач с эпиками
-            for (Subtask subtask : manager.subtasks.values()) {
-                Epic epic = manager.epics.get(subtask.getEpicId());
-                if (epic != null) {
-                    epic.addSubtask(subtask.getId());
-                    epic.updateTime(manager);
-                }
+    /**
+     * Определяет формат снимка по сигнатуре в начале файла.
+     *
+     * @param file файл снимка
+     * @return формат снимка; CSV для пустого или отсутствующего файла
+     */
+    public static SnapshotFormat detectFormat(File file) {
+        if (!file.exists()) {
+            return SnapshotFormat.CSV;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // Дочитываем сигнатуру целиком
             }
-
+            header.flip();
+            return BinarySnapshot.isBinary(header) ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка загрузки из файла");
         }
+    }
 
-        return manager;
+    /**
+     * Загружает данные менеджера из снимка и применяет к нему журнал изменений.
+     * Оборванная при сбое последняя запись журнала отбрасывается.
+     *
+     * @param file             файл снимка состояния (CSV)
+     * @param journalFile      файл журнала изменений
+     * @param snapshotInterval количество операций между снимками для восстановленного менеджера
+     * @return восстановленный FileBackedTaskManager в режиме журнала
+     */
+    public static FileBackedTaskManager loadFromFile(File file, File journalFile, int snapshotInterval) {
+        List<String> records = readJournal(journalFile);
+        FileBackedTaskManager manager =
+                new FileBackedTaskManager(file, new TaskJournal(journalFile), snapshotInterval, false);
+        return manager.restore(records);
+    }
+
+    /**
+     * Загружает данные менеджера из снимка и журнала и продолжает работу в режиме асинхронного журнала.
+     *
+     * @param file             файл снимка состояния (CSV)
+     * @param journalFile      файл журнала изменений
+     * @param snapshotInterval количество операций между снимками для восстановленного менеджера
+     * @param maxFlushDelay    максимальное время накопления пакета перед записью
+     * @param maxBatchSize     максимальное количество записей в пакете
+     * @return восстановленный FileBackedTaskManager в режиме асинхронного журнала
+     */
+    public static FileBackedTaskManager loadFromFile(File file, File journalFile, int snapshotInterval,
+                                                     Duration maxFlushDelay, int maxBatchSize) {
+        List<String> records = readJournal(journalFile);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file,
+                new AsyncTaskJournal(journalFile, maxFlushDelay, maxBatchSize), snapshotInterval, false);
+        return manager.restore(records);
+    }
+
+    private static List<String> readJournal(File journalFile) {
+        // Журнал читается и обрезается до последней целой записи до открытия на дозапись
+        List<String> records = new ArrayList<>();
+        TaskJournal.replay(journalFile, records::add);
+        return records;
+    }
+
+    private FileBackedTaskManager restore(List<String> records) {
+        if (file.exists()) {
+            loadSnapshot(file);
+        }
+        records.forEach(this::applyRecord);
+        restoreDerivedState();
+        return this;
+    }
+
+    private void loadSnapshot(File source) {
+        if (detectFormat(source) == SnapshotFormat.BINARY) {
+            BinarySnapshot.read(source, this::putLoaded);
+        } else {
+            // Сущности добавляются по мере разбора, без чтения файла целиком в память
+            CsvSnapshotReader.read(source, this::putLoaded);
+        }
+    }
+
+    private void putLoaded(Task task) {
+        if (task instanceof Epic) {
+            epics.put(task.getId(), (Epic) task);
+        } else if (task instanceof Subtask) {
+            subtasks.put(task.getId(), (Subtask) task);
+        } else {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    /**
+     * Применяет одну запись журнала к хранилищам без пересчёта производных данных.
+     *
+     * @param record запись журнала
+     */
+    private void applyRecord(String record) {
+        String payload = record.substring(2);
+        switch (record.charAt(0)) {
+            case TaskJournal.PUT:
+                putLoaded(fromString(payload));
+                break;
+            case TaskJournal.DELETE:
+                for (String id : payload.split(",")) {
+                    int key = Integer.parseInt(id);
+                    tasks.remove(key);
+                    subtasks.remove(key);
+                    epics.remove(key);
+                }
+                break;
+            case TaskJournal.CLEAR:
+                TaskType type = TaskType.valueOf(payload);
+                if (type == TaskType.TASK) {
+                    tasks.clear();
+                } else {
+                    subtasks.clear();
+                    if (type == TaskType.EPIC) {
+                        epics.clear();
+                    }
+                }
+                break;
+            default:
+                throw new ManagerSaveException("Некорректная запись журнала: " + record);
+        }
     }
 
     // Переопределенные методы TaskManager с автосохранением
 
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        pendingRecords = new ArrayList<>();
+        try {
+            return super.applyBatch(operations);
+        } finally {
+            List<String> records = pendingRecords;
+            pendingRecords = null;
+            persistAll(records);
+        }
+    }
+
     @Override
     public Task createTask(String name, String description, Status status,
                            Duration duration, LocalDateTime startTime) {
         Task task = super.createTask(name, description, status, duration, startTime);
-        save();
+        persist(putRecord(task));
         return task;
     }
 
     @Override
     public void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        if (tasks.containsKey(task.getId())) {
+            persist(putRecord(task));
+        }
     }
 
     @Override
     public void deleteTask(int id) {
         super.deleteTask(id);
-        save();
+        persist(deleteRecord(id, List.of()));
     }
 
     @Override
     public void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        persist(clearRecord(TaskType.TASK));
     }
 
     @Override
     public Subtask createSubtask(String name, String description, Status status,
                                  int epicId, Duration duration, LocalDateTime startTime) {
         Subtask subtask = super.createSubtask(name, description, status, epicId, duration, startTime);
-        save();
+        persist(putRecord(subtask));
         return subtask;
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
         super.updateSubtask(subtask);
-        save();
+        if (subtasks.containsKey(subtask.getId())) {
+            persist(putRecord(subtask));
+        }
     }
 
     @Override
     public void deleteSubtask(int id) {
         super.deleteSubtask(id);
-        save();
+        persist(deleteRecord(id, List.of()));
     }
 
     @Override
     public void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        persist(clearRecord(TaskType.SUBTASK));
     }
 
     @Override
     public Epic createEpic(String name, String description) {
         Epic epic = super.createEpic(name, description);
-        save();
+        persist(putRecord(epic));
         return epic;
     }
 
     @Override
     public void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        Epic savedEpic = epics.get(epic.getId());
+        if (savedEpic != null) {
+            persist(putRecord(savedEpic));
+        }
     }
 
     @Override
     public void deleteEpic(int id) {
+        Epic epic = epics.get(id);
+        List<Integer> subtaskIds = epic != null ? new ArrayList<>(epic.getSubtaskIds()) : List.of();
         super.deleteEpic(id);
-        save();
+        // Подзадачи удаляются той же записью, чтобы удаление эпика было атомарным
+        persist(deleteRecord(id, subtaskIds));
     }
 
     @Override
     public void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        persist(clearRecord(TaskType.EPIC));
     }
 }
\ No newline at end of file
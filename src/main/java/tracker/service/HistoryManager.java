@@ -10,4 +10,11 @@ public interface HistoryManager {
     void remove(int id);  // Новый метод для удаления
 
     List<Task> getHistory();
+
+    /**
+     * Сообщает, что сущность с этим id изменилась на месте: если история хранит ссылку на неё,
+     * её содержимое тоже изменилось. Истории с версиями должны сменить версию; по умолчанию ничего не делает.
+     */
+    default void changed(int id) {
+    }
 }
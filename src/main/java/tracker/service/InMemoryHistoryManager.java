@@ -1,84 +1,138 @@
 package tracker.service;
 
 import tracker.entity.Task;
+import tracker.util.IntIntHashMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Использую двусвязный список + HashMap для быстрого доступа к узлам.
+ * Двусвязный список просмотров на массивах + хеш-таблица id → номер ячейки.
+ * Вместо объекта-узла на каждую запись используются параллельные массивы
+ * tasks/prev/next, а индекс хранится в {@link IntIntHashMap} без упаковки ключей.
  * linkLast(task) – добавляет задачу в конец списка.
- * removeNode(node) – удаляет узел из списка за O(1).
- * historyMap хранит соответствие id задачи → узел списка.
+ * unlink(slot) – удаляет ячейку из списка за O(1); освободившиеся ячейки переиспользуются.
+ * <p>
+ * При заданной вместимости история работает как LRU: при добавлении новой задачи
+ * в заполненную историю вытесняется самый давний просмотр.
  */
-
 public class InMemoryHistoryManager implements HistoryManager {
-    private static class Node {
-        Task task;
-        Node prev;
-        Node next;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxSize;
+    private final IntIntHashMap slotsById;
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int freeHead = NONE;
+    private int used;
 
-        Node(Task task) {
-            this.task = task;
+    /**
+     * Создаёт историю без ограничения размера.
+     */
+    public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxSize максимальное количество записей в истории
+     */
+    public InMemoryHistoryManager(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным");
         }
+        this.maxSize = maxSize;
+        int capacity = Math.min(maxSize, INITIAL_CAPACITY);
+        this.slotsById = new IntIntHashMap(capacity);
+        this.tasks = new Task[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
     }
 
-    private final Map<Integer, Node> historyMap = new HashMap<>();
-    private Node head;
-    private Node tail;
+    /**
+     * @return максимальное количество записей в истории
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
 
     @Override
     public void add(Task task) {
         if (task == null) return;
         // Удаляем старую версию задачи (если есть)
         remove(task.getId());
+        // Вытесняем самый давний просмотр, если история заполнена
+        if (slotsById.size() == maxSize) {
+            remove(tasks[head].getId());
+        }
         // Добавляем задачу в конец списка
         linkLast(task);
     }
 
     @Override
     public void remove(int id) {
-        Node node = historyMap.remove(id);
-        if (node != null) {
-            removeNode(node);
+        int slot = slotsById.remove(id, NONE);
+        if (slot != NONE) {
+            unlink(slot);
         }
     }
 
     @Override
     public List<Task> getHistory() {
-        List<Task> result = new ArrayList<>();
-        Node current = head;
-        while (current != null) {
-            result.add(current.task);
-            current = current.next;
+        List<Task> result = new ArrayList<>(slotsById.size());
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            result.add(tasks[slot]);
         }
         return result;
     }
 
     private void linkLast(Task task) {
-        Node newNode = new Node(task);
-        if (tail == null) {
-            head = newNode;
+        int slot = allocateSlot();
+        tasks[slot] = task;
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
         } else {
-            tail.next = newNode;
-            newNode.prev = tail;
+            next[tail] = slot;
         }
-        tail = newNode;
-        historyMap.put(task.getId(), newNode);
+        tail = slot;
+        slotsById.put(task.getId(), slot);
     }
 
-    private void removeNode(Node node) {
-        if (node.prev != null) {
-            node.prev.next = node.next;
+    private void unlink(int slot) {
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
         } else {
-            head = node.next;
+            head = next[slot];
         }
-        if (node.next != null) {
-            node.next.prev = node.prev;
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
         } else {
-            tail = node.prev;
+            tail = prev[slot];
+        }
+        // Ячейка уходит в список свободных; ссылку на задачу обнуляем для сборщика мусора
+        tasks[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (used == tasks.length) {
+            int capacity = (int) Math.min(maxSize, Math.max(INITIAL_CAPACITY, (long) tasks.length * 2));
+            tasks = Arrays.copyOf(tasks, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
         }
+        return used++;
     }
 }
@@ -2,10 +2,12 @@ package tracker.service;
 
 import tracker.entity.*;
 import tracker.exceptions.ManagerSaveException;
+import tracker.exceptions.NotFoundException;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 
 /**
@@ -14,17 +16,45 @@ import java.util.stream.Collectors;
  */
 public class InMemoryTaskManager implements TaskManager {
     int nextId = 1;
-    final Map<Integer, Task> tasks = new HashMap<>();
-    final Map<Integer, Subtask> subtasks = new HashMap<>();
-    final Map<Integer, Epic> epics = new HashMap<>();
-    private final HistoryManager historyManager = Managers.getDefaultHistory();
-    private final Set<Task> prioritizedTasks = new TreeSet<>(
-            Comparator.comparing(Task::getStartTime,
-                    Comparator.nullsLast(Comparator.naturalOrder()))
-    );
+    final Map<Integer, Task> tasks;
+    final Map<Integer, Subtask> subtasks;
+    final Map<Integer, Epic> epics;
+    final HistoryManager historyManager;
+    private final ScheduleIndex prioritizedTasks = new ScheduleIndex();
+    private final TimeIntervalIndex timeIndex = new TimeIntervalIndex();
+    // Версии наборов данных по DataSet.ordinal(); атомарные, чтобы их можно было читать без блокировок
+    private final AtomicLongArray versions = new AtomicLongArray(DataSet.values().length);
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    /**
+     * @param historyManager менеджер истории просмотров (например, с разделением по сессиям)
+     */
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(new HashMap<>(), new HashMap<>(), new HashMap<>(), historyManager);
+    }
+
+    /**
+     * Конструктор для наследников, которым нужны собственные реализации хранилищ
+     * (например, потокобезопасные).
+     *
+     * @param tasks          хранилище задач
+     * @param subtasks       хранилище подзадач
+     * @param epics          хранилище эпиков
+     * @param historyManager менеджер истории просмотров
+     */
+    protected InMemoryTaskManager(Map<Integer, Task> tasks, Map<Integer, Subtask> subtasks,
+                                  Map<Integer, Epic> epics, HistoryManager historyManager) {
+        this.tasks = tasks;
+        this.subtasks = subtasks;
+        this.epics = epics;
+        this.historyManager = historyManager;
+    }
 
     // Генерация нового ID
-    private int generateId() {
+    protected int generateId() {
         return nextId++;
     }
 
@@ -45,12 +75,17 @@ public class InMemoryTaskManager implements TaskManager {
         tasks.keySet().forEach(historyManager::remove);
         tasks.values().forEach(this::removeFromPrioritized);
         tasks.clear();
+        touch(DataSet.TASKS);
+        touch(DataSet.HISTORY);
     }
 
     @Override
     public Task getTask(int id) {
         Task task = tasks.get(id);
-        if (task != null) historyManager.add(task);
+        if (task != null) {
+            historyManager.add(task);
+            touch(DataSet.HISTORY);
+        }
         return task;
     }
 
@@ -69,8 +104,10 @@ public class InMemoryTaskManager implements TaskManager {
 
         int id = generateId();
         Task task = new Task(id, name, description, status, duration, startTime);
+        task.setVersion(1);
         tasks.put(id, task);
         addToPrioritized(task);
+        touch(DataSet.TASKS);
         return task;
     }
 
@@ -78,13 +115,15 @@ public class InMemoryTaskManager implements TaskManager {
     public void updateTask(Task task) {
         if (tasks.containsKey(task.getId())) {
             Task existingTask = tasks.get(task.getId());
-            if (hasTimeConflict(task) && !task.equals(existingTask)) {
+            if (hasTimeConflict(task)) {
                 throw new ManagerSaveException("Обновленная задача пересекается по времени с существующей");
             }
 
             removeFromPrioritized(existingTask);
+            task.setVersion(existingTask.getVersion() + 1);
             tasks.put(task.getId(), task);
             addToPrioritized(task);
+            touch(DataSet.TASKS);
         }
     }
 
@@ -94,6 +133,8 @@ public class InMemoryTaskManager implements TaskManager {
         if (task != null) {
             historyManager.remove(id);
             removeFromPrioritized(task);
+            touch(DataSet.TASKS);
+            touch(DataSet.HISTORY);
         }
     }
 
@@ -110,16 +151,21 @@ public class InMemoryTaskManager implements TaskManager {
         subtasks.clear();
 
         epics.values().forEach(epic -> {
-            epic.getSubtaskIds().clear();
-            updateEpicStatus(epic.getId());
-            epic.updateTime(this);
+            epic.clearSubtasks();
+            nextVersion(epic);
         });
+        touch(DataSet.SUBTASKS);
+        touch(DataSet.EPICS);
+        touch(DataSet.HISTORY);
     }
 
     @Override
     public Subtask getSubtask(int id) {
         Subtask subtask = subtasks.get(id);
-        if (subtask != null) historyManager.add(subtask);
+        if (subtask != null) {
+            historyManager.add(subtask);
+            touch(DataSet.HISTORY);
+        }
         return subtask;
     }
 
@@ -138,16 +184,18 @@ public class InMemoryTaskManager implements TaskManager {
 
         int id = generateId();
         Subtask subtask = new Subtask(id, name, description, status, epicId, duration, startTime);
+        subtask.setVersion(1);
         subtasks.put(id, subtask);
 
         Epic epic = epics.get(epicId);
         if (epic != null) {
-            epic.addSubtask(id);
-            updateEpicStatus(epicId);
-            epic.updateTime(this);
+            epic.addSubtask(subtask);
+            epicChanged(epic);
+            touch(DataSet.EPICS);
         }
 
         addToPrioritized(subtask);
+        touch(DataSet.SUBTASKS);
         return subtask;
     }
 
@@ -155,19 +203,30 @@ public class InMemoryTaskManager implements TaskManager {
     public void updateSubtask(Subtask subtask) {
         if (subtasks.containsKey(subtask.getId())) {
             Subtask existingSubtask = subtasks.get(subtask.getId());
-            if (hasTimeConflict(subtask) && !subtask.equals(existingSubtask)) {
+            if (hasTimeConflict(subtask)) {
                 throw new ManagerSaveException("Обновленная подзадача пересекается по времени с существующей");
             }
 
             removeFromPrioritized(existingSubtask);
+            subtask.setVersion(existingSubtask.getVersion() + 1);
             subtasks.put(subtask.getId(), subtask);
             addToPrioritized(subtask);
-
+            touch(DataSet.SUBTASKS);
+
+            // Подзадача могла быть перенесена в другой эпик
+            if (existingSubtask.getEpicId() != subtask.getEpicId()) {
+                Epic previousEpic = epics.get(existingSubtask.getEpicId());
+                if (previousEpic != null) {
+                    previousEpic.removeSubtask(subtask.getId());
+                    epicChanged(previousEpic);
+                }
+            }
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
-                updateEpicStatus(epic.getId());
-                epic.updateTime(this);
+                epic.addSubtask(subtask);
+                epicChanged(epic);
             }
+            touch(DataSet.EPICS);
         }
     }
 
@@ -181,9 +240,11 @@ public class InMemoryTaskManager implements TaskManager {
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
                 epic.removeSubtask(id);
-                updateEpicStatus(epic.getId());
-                epic.updateTime(this);
+                epicChanged(epic);
+                touch(DataSet.EPICS);
             }
+            touch(DataSet.SUBTASKS);
+            touch(DataSet.HISTORY);
         }
     }
 
@@ -213,12 +274,18 @@ public class InMemoryTaskManager implements TaskManager {
         epics.clear();
         subtasks.clear();
         // Приоритизированные задачи будут автоматически очищены при очистке subtasks
+        touch(DataSet.EPICS);
+        touch(DataSet.SUBTASKS);
+        touch(DataSet.HISTORY);
     }
 
     @Override
     public Epic getEpic(int id) {
         Epic epic = epics.get(id);
-        if (epic != null) historyManager.add(epic);
+        if (epic != null) {
+            historyManager.add(epic);
+            touch(DataSet.HISTORY);
+        }
         return epic;
     }
 
@@ -226,7 +293,9 @@ public class InMemoryTaskManager implements TaskManager {
     public Epic createEpic(String name, String description) {
         int id = generateId();
         Epic epic = new Epic(id, name, description);
+        epic.setVersion(1);
         epics.put(id, epic);
+        touch(DataSet.EPICS);
         // Epic не добавляется в prioritizedTasks, так как у него нет времени начала
         return epic;
     }
@@ -237,7 +306,8 @@ public class InMemoryTaskManager implements TaskManager {
             Epic savedEpic = epics.get(epic.getId());
             savedEpic.setName(epic.getName());
             savedEpic.setDescription(epic.getDescription());
-            savedEpic.updateTime(this);
+            epicChanged(savedEpic);
+            touch(DataSet.EPICS);
         }
     }
 
@@ -256,6 +326,11 @@ public class InMemoryTaskManager implements TaskManager {
             }
             // Затем удаляем все подзадачи эпика
             epic.getSubtaskIds().forEach(subtasks::remove);
+            touch(DataSet.EPICS);
+            if (!epic.getSubtaskIds().isEmpty()) {
+                touch(DataSet.SUBTASKS);
+            }
+            touch(DataSet.HISTORY);
         }
     }
 
@@ -270,12 +345,80 @@ public class InMemoryTaskManager implements TaskManager {
                 .collect(Collectors.toList());
     }
 
+    // Чтение без записи в историю
+    @Override
+    public Task peekTask(int id) {
+        return tasks.get(id);
+    }
+
+    @Override
+    public Subtask peekSubtask(int id) {
+        return subtasks.get(id);
+    }
+
+    @Override
+    public Epic peekEpic(int id) {
+        return epics.get(id);
+    }
+
     // Приоритизация задач
     @Override
     public List<Task> getPrioritizedTasks() {
-        return prioritizedTasks.stream()
-                .filter(task -> task.getStartTime() != null)
-                .collect(Collectors.toList());
+        return prioritizedTasks.toList();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return prioritizedTasks.range(from, to, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime cursorStart, int cursorId, LocalDateTime to, int limit) {
+        return prioritizedTasks.after(cursorStart, cursorId, to, limit);
+    }
+
+    // Версии данных
+    @Override
+    public long getVersion(DataSet dataSet) {
+        return versions.get(dataSet.ordinal());
+    }
+
+    @Override
+    public long getVersion(int id) {
+        Task entity = tasks.get(id);
+        if (entity == null) entity = subtasks.get(id);
+        if (entity == null) entity = epics.get(id);
+        return entity != null ? entity.getVersion() : -1;
+    }
+
+    /**
+     * Отмечает изменение набора данных.
+     */
+    void touch(DataSet dataSet) {
+        versions.incrementAndGet(dataSet.ordinal());
+    }
+
+    private static void nextVersion(Task entity) {
+        entity.setVersion(entity.getVersion() + 1);
+    }
+
+    /**
+     * Отмечает изменение эпика на месте. getEpic кладёт в историю сам эпик, поэтому вместе с ним
+     * меняется и содержимое истории: её версия тоже меняется, иначе /history ответил бы 304 на старый ETag.
+     */
+    private void epicChanged(Epic epic) {
+        nextVersion(epic);
+        if (historyHoldsLiveEpics()) {
+            historyManager.changed(epic.getId());
+            touch(DataSet.HISTORY);
+        }
+    }
+
+    /**
+     * @return true, если история хранит сами эпики менеджера, а не их снимки
+     */
+    boolean historyHoldsLiveEpics() {
+        return true;
     }
 
     // Проверка пересечений по времени
@@ -285,58 +428,240 @@ public class InMemoryTaskManager implements TaskManager {
             return false;
         }
 
-        LocalDateTime newStart = newTask.getStartTime();
-        LocalDateTime newEnd = newTask.getEndTime();
+        return timeIndex.overlaps(newTask.getStartTime(), newTask.getEndTime(), newTask.getId());
+    }
 
-        return prioritizedTasks.stream()
-                .filter(task -> task.getStartTime() != null && !task.equals(newTask))
-                .anyMatch(existingTask -> {
-                    LocalDateTime existingStart = existingTask.getStartTime();
-                    LocalDateTime existingEnd = existingTask.getEndTime();
-                    return newStart.isBefore(existingEnd) && existingStart.isBefore(newEnd);
-                });
+    @Override
+    public LocalDateTime findNextFreeSlot(Duration duration, LocalDateTime after, LocalDateTime before) {
+        if (duration == null || duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("Продолжительность должна быть положительной");
+        }
+        return timeIndex.findFreeSlot(after, duration, before);
     }
 
-    // Вспомогательные методы для работы с приоритетами
-    private void addToPrioritized(Task task) {
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
+    @Override
+    public Task createTaskInFreeSlot(String name, String description, Status status,
+                                     Duration duration, LocalDateTime after) {
+        LocalDateTime startTime = findNextFreeSlot(duration, after, null);
+        return createTask(name, description, status, duration, startTime);
+    }
+
+    // Пакетные операции
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        validateBatch(operations);
+        List<Task> created = new ArrayList<>();
+        for (BatchOperation operation : operations) {
+            Task draft = operation.getDraft();
+            switch (operation.getType()) {
+                case CREATE_TASK:
+                    created.add(createTask(draft.getName(), draft.getDescription(), draft.getStatus(),
+                            draft.getDuration(), draft.getStartTime()));
+                    break;
+                case CREATE_SUBTASK:
+                    created.add(createSubtask(draft.getName(), draft.getDescription(), draft.getStatus(),
+                            ((Subtask) draft).getEpicId(), draft.getDuration(), draft.getStartTime()));
+                    break;
+                case DELETE:
+                    deleteById(operation.getId());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестная операция: " + operation.getType());
+            }
         }
+        return created;
     }
 
-    private void removeFromPrioritized(Task task) {
-        prioritizedTasks.remove(task);
+    @Override
+    public List<Task> createTasks(List<Task> drafts) {
+        List<BatchOperation> operations = new ArrayList<>(drafts.size());
+        for (Task draft : drafts) {
+            operations.add(BatchOperation.create(draft));
+        }
+        return applyBatch(operations);
     }
 
-    // Обновление статуса эпика
-    private void updateEpicStatus(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return;
+    @Override
+    public List<Subtask> createSubtasks(List<Subtask> drafts) {
+        List<BatchOperation> operations = new ArrayList<>(drafts.size());
+        for (Subtask draft : drafts) {
+            operations.add(BatchOperation.create(draft));
+        }
+        List<Subtask> created = new ArrayList<>(drafts.size());
+        for (Task subtask : applyBatch(operations)) {
+            created.add((Subtask) subtask);
+        }
+        return created;
+    }
 
-        List<Subtask> epicSubtasks = getEpicSubtasks(epicId);
-        if (epicSubtasks.isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
+    @Override
+    public void deleteTasks(Collection<Integer> ids) {
+        List<BatchOperation> operations = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            operations.add(BatchOperation.delete(id));
         }
+        applyBatch(operations);
+    }
 
-        boolean allNew = true;
-        boolean allDone = true;
+    private void deleteById(int id) {
+        if (tasks.containsKey(id)) {
+            deleteTask(id);
+        } else if (subtasks.containsKey(id)) {
+            deleteSubtask(id);
+        } else if (epics.containsKey(id)) {
+            deleteEpic(id);
+        }
+    }
+
+    /**
+     * Интервал, временно изменённый в индексе при проверке пакета.
+     */
+    private static class StagedInterval {
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        StagedInterval(int id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
 
-        for (Subtask subtask : epicSubtasks) {
-            if (subtask.getStatus() != Status.NEW) {
-                allNew = false;
+    /**
+     * Проверяет пакет, проигрывая его по порядку на индексе интервалов: удаления временно убирают
+     * интервалы, создаваемые задачи проверяются на пересечение и временно добавляются под отрицательными id.
+     * В конце индекс возвращается в исходное состояние; хранилища и история не изменяются.
+     */
+    private void validateBatch(List<BatchOperation> operations) {
+        List<StagedInterval> removed = new ArrayList<>();
+        List<StagedInterval> added = new ArrayList<>();
+        Set<Integer> deletedEpics = new HashSet<>();
+        // Интервалы подзадач, созданных раньше в этом же пакете, по id эпика: удаление эпика удаляет и их
+        Map<Integer, List<StagedInterval>> addedByEpic = new HashMap<>();
+        try {
+            for (BatchOperation operation : operations) {
+                Task draft = operation.getDraft();
+                switch (operation.getType()) {
+                    case DELETE:
+                        int id = operation.getId();
+                        stageRemoval(tasks.get(id), removed);
+                        stageRemoval(subtasks.get(id), removed);
+                        Epic epic = epics.get(id);
+                        if (epic != null && deletedEpics.add(id)) {
+                            for (int subtaskId : epic.getSubtaskIds()) {
+                                stageRemoval(subtasks.get(subtaskId), removed);
+                            }
+                            for (StagedInterval interval : addedByEpic.getOrDefault(id, List.of())) {
+                                timeIndex.remove(interval.id, interval.start);
+                                added.remove(interval);
+                            }
+                        }
+                        break;
+                    case CREATE_SUBTASK:
+                        int epicId = ((Subtask) draft).getEpicId();
+                        if (!epics.containsKey(epicId) || deletedEpics.contains(epicId)) {
+                            throw new NotFoundException("Эпик не найден: " + epicId);
+                        }
+                        StagedInterval interval = stageAddition(draft, added);
+                        if (interval != null) {
+                            addedByEpic.computeIfAbsent(epicId, key -> new ArrayList<>()).add(interval);
+                        }
+                        break;
+                    case CREATE_TASK:
+                        stageAddition(draft, added);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестная операция: " + operation.getType());
+                }
+            }
+        } finally {
+            for (StagedInterval interval : added) {
+                timeIndex.remove(interval.id, interval.start);
+            }
+            for (StagedInterval interval : removed) {
+                timeIndex.add(interval.id, interval.start, interval.end);
             }
-            if (subtask.getStatus() != Status.DONE) {
-                allDone = false;
+        }
+    }
+
+    private void stageRemoval(Task task, List<StagedInterval> removed) {
+        if (task == null || task.getDuration() == null) {
+            return;
+        }
+        ScheduleIndex.Key key = prioritizedTasks.get(task.getId());
+        if (key != null && timeIndex.remove(key.id, key.start)) {
+            removed.add(new StagedInterval(key.id, key.start, key.start.plus(task.getDuration())));
+        }
+    }
+
+    /**
+     * @return добавленный в индекс интервал или null, если у задачи нет времени
+     */
+    private StagedInterval stageAddition(Task draft, List<StagedInterval> added) {
+        if (draft.getStartTime() == null || draft.getDuration() == null) {
+            return null;
+        }
+        LocalDateTime end = draft.getEndTime();
+        if (timeIndex.overlaps(draft.getStartTime(), end, 0)) {
+            throw new ManagerSaveException("Задача пакета пересекается по времени с существующей: " + draft.getName());
+        }
+        StagedInterval interval = new StagedInterval(nextStagedId(added), draft.getStartTime(), end);
+        timeIndex.add(interval.id, interval.start, interval.end);
+        added.add(interval);
+        return interval;
+    }
+
+    private static int nextStagedId(List<StagedInterval> added) {
+        // Список может уменьшиться при удалении эпика, поэтому id считаем от последнего, а не от размера
+        return added.isEmpty() ? -1 : added.get(added.size() - 1).id - 1;
+    }
+
+    // Вспомогательные методы для работы с приоритетами
+    private void addToPrioritized(Task task) {
+        if (task.getStartTime() != null) {
+            prioritizedTasks.put(task);
+            touch(DataSet.PRIORITIZED);
+            if (task.getDuration() != null) {
+                timeIndex.add(task.getId(), task.getStartTime(), task.getEndTime());
             }
         }
+    }
 
-        if (allDone) {
-            epic.setStatus(Status.DONE);
-        } else if (allNew) {
-            epic.setStatus(Status.NEW);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
+    private void removeFromPrioritized(Task task) {
+        // Время берём из ключа индекса, а не из объекта: его могли изменить после добавления
+        ScheduleIndex.Key key = prioritizedTasks.remove(task.getId());
+        if (key != null) {
+            timeIndex.remove(key.id, key.start);
+            touch(DataSet.PRIORITIZED);
+        }
+    }
+
+    /**
+     * Восстанавливает производные данные после загрузки сущностей напрямую в хранилища:
+     * связи эпиков с подзадачами, статус и время эпиков, индекс приоритетов и счётчик id.
+     */
+    void restoreDerivedState() {
+        prioritizedTasks.clear();
+        timeIndex.clear();
+        epics.values().forEach(Epic::clearSubtasks);
+
+        int maxId = 0;
+        for (Task task : tasks.values()) {
+            addToPrioritized(task);
+            maxId = Math.max(maxId, task.getId());
+        }
+        for (Subtask subtask : subtasks.values()) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.addSubtask(subtask);
+            }
+            addToPrioritized(subtask);
+            maxId = Math.max(maxId, subtask.getId());
+        }
+        for (Epic epic : epics.values()) {
+            maxId = Math.max(maxId, epic.getId());
         }
+        nextId = Math.max(nextId, maxId + 1);
     }
-}
\ No newline at end of file
+}
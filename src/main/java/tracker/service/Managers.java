@@ -1,11 +1,65 @@
 package tracker.service;
 
+import java.time.Duration;
+
 public class Managers {
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
 
+    /**
+     * @return потокобезопасный менеджер задач для многопоточного HTTP-сервера
+     */
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    /**
+     * @param historyManager менеджер истории просмотров
+     * @return менеджер задач с заданной историей
+     */
+    public static TaskManager getDefault(HistoryManager historyManager) {
+        return new InMemoryTaskManager(historyManager);
+    }
+
+    /**
+     * @param historyManager потокобезопасный менеджер истории просмотров
+     * @return потокобезопасный менеджер задач с заданной историей
+     */
+    public static TaskManager getConcurrent(HistoryManager historyManager) {
+        return new ConcurrentTaskManager(historyManager);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    /**
+     * @param maxSize максимальное количество записей; при переполнении вытесняется самый давний просмотр
+     * @return история просмотров ограниченного размера
+     */
+    public static HistoryManager getDefaultHistory(int maxSize) {
+        return new InMemoryHistoryManager(maxSize);
+    }
+
+    /**
+     * @return потокобезопасная история просмотров для одновременных запросов из многих потоков
+     */
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager(getDefaultHistory());
+    }
+
+    /**
+     * История с разделением по сессиям клиентов. Общий объём ограничен
+     * maxSessions * perSessionCapacity записями.
+     *
+     * @param perSessionCapacity максимальное количество записей в истории одной сессии
+     * @param idleTimeout        время бездействия, после которого сессия удаляется
+     * @param maxSessions        максимальное количество сессий
+     * @return история просмотров по сессиям
+     */
+    public static SessionHistoryManager getSessionHistory(int perSessionCapacity, Duration idleTimeout,
+                                                          int maxSessions) {
+        return new SessionHistoryManager(() -> getDefaultHistory(perSessionCapacity), idleTimeout, maxSessions);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package tracker.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрики записи журнала изменений: размер пакетов и задержка сброса на диск.
+ * Используются для подбора параметров асинхронного сохранения.
+ */
+public class PersistenceStats {
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    /**
+     * Регистрирует записанный пакет.
+     *
+     * @param batchSize  количество записей в пакете
+     * @param flushNanos время записи и сброса пакета в наносекундах
+     */
+    void recordBatch(int batchSize, long flushNanos) {
+        batches.incrementAndGet();
+        records.addAndGet(batchSize);
+        maxBatchSize.accumulateAndGet(batchSize, Math::max);
+        totalFlushNanos.addAndGet(flushNanos);
+        maxFlushNanos.accumulateAndGet(flushNanos, Math::max);
+    }
+
+    /**
+     * @return количество записанных пакетов
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * @return общее количество записанных записей
+     */
+    public long getRecords() {
+        return records.get();
+    }
+
+    /**
+     * @return наибольший размер пакета
+     */
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    /**
+     * @return средний размер пакета
+     */
+    public double getAverageBatchSize() {
+        long count = batches.get();
+        return count == 0 ? 0 : (double) records.get() / count;
+    }
+
+    /**
+     * @return средняя задержка сброса пакета в микросекундах
+     */
+    public double getAverageFlushMicros() {
+        long count = batches.get();
+        return count == 0 ? 0 : totalFlushNanos.get() / 1_000.0 / count;
+    }
+
+    /**
+     * @return наибольшая задержка сброса пакета в микросекундах
+     */
+    public double getMaxFlushMicros() {
+        return maxFlushNanos.get() / 1_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceStats{" +
+                "batches=" + getBatches() +
+                ", records=" + getRecords() +
+                ", avgBatchSize=" + String.format("%.1f", getAverageBatchSize()) +
+                ", maxBatchSize=" + getMaxBatchSize() +
+                ", avgFlushMicros=" + String.format("%.1f", getAverageFlushMicros()) +
+                ", maxFlushMicros=" + String.format("%.1f", getMaxFlushMicros()) +
+                '}';
+    }
+}
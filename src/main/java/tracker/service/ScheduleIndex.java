@@ -0,0 +1,170 @@
+package tracker.service;
+
+import tracker.entity.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Индекс задач с временем начала в порядке приоритета.
+ * <p>
+ * Задачи упорядочены по неизменяемому ключу (время начала, id), снятому при добавлении,
+ * поэтому задачи с одинаковым началом не вытесняют друг друга, а последующее изменение
+ * времени у самого объекта задачи не ломает упорядоченную структуру. Обратная карта id → ключ
+ * позволяет удалять и заменять задачи по id за O(log n), не зная, с каким временем они были добавлены.
+ */
+class ScheduleIndex {
+    /**
+     * Позиция задачи в индексе.
+     */
+    static final class Key implements Comparable<Key> {
+        final LocalDateTime start;
+        final int id;
+
+        Key(LocalDateTime start, int id) {
+            this.start = start;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = start.compareTo(other.start);
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return id == key.id && start.equals(key.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * start.hashCode() + id;
+        }
+    }
+
+    private final NavigableMap<Key, Task> tasksByKey = new TreeMap<>();
+    private final Map<Integer, Key> keysById = new HashMap<>();
+
+    /**
+     * @return количество задач в индексе
+     */
+    int size() {
+        return keysById.size();
+    }
+
+    /**
+     * Добавляет задачу или заменяет ранее добавленную задачу с тем же id.
+     *
+     * @param task задача с заданным временем начала
+     * @return ключ, с которым задача была в индексе до замены, или null
+     */
+    Key put(Task task) {
+        if (task.getStartTime() == null) {
+            throw new IllegalArgumentException("Задача без времени начала не может быть в расписании");
+        }
+        Key key = new Key(task.getStartTime(), task.getId());
+        Key previous = keysById.put(task.getId(), key);
+        if (previous != null && !previous.equals(key)) {
+            tasksByKey.remove(previous);
+        }
+        tasksByKey.put(key, task);
+        return previous;
+    }
+
+    /**
+     * Удаляет задачу по id.
+     *
+     * @param id идентификатор задачи
+     * @return ключ, с которым задача была в индексе, или null, если её не было
+     */
+    Key remove(int id) {
+        Key key = keysById.remove(id);
+        if (key != null) {
+            tasksByKey.remove(key);
+        }
+        return key;
+    }
+
+    /**
+     * @return ключ, с которым задача находится в индексе, или null
+     */
+    Key get(int id) {
+        return keysById.get(id);
+    }
+
+    boolean contains(int id) {
+        return keysById.containsKey(id);
+    }
+
+    void clear() {
+        tasksByKey.clear();
+        keysById.clear();
+    }
+
+    /**
+     * @return все задачи в порядке приоритета
+     */
+    List<Task> toList() {
+        return new ArrayList<>(tasksByKey.values());
+    }
+
+    /**
+     * Возвращает первые limit задач с временем начала в полуинтервале [from, to).
+     *
+     * @param from  начало интервала включительно или null без ограничения
+     * @param to    конец интервала не включительно или null без ограничения
+     * @param limit максимальное количество задач
+     */
+    List<Task> range(LocalDateTime from, LocalDateTime to, int limit) {
+        NavigableMap<Key, Task> range = tasksByKey;
+        if (from != null) {
+            range = range.tailMap(lowerBound(from), true);
+        }
+        return first(range, to, limit);
+    }
+
+    /**
+     * Возвращает первые limit задач, идущих строго после позиции (start, id), с началом раньше to.
+     * Задачи с такой позицией в индексе может уже не быть.
+     */
+    List<Task> after(LocalDateTime start, int id, LocalDateTime to, int limit) {
+        return first(tasksByKey.tailMap(new Key(start, id), false), to, limit);
+    }
+
+    /**
+     * Копирует не более limit задач из представления range, начинающихся раньше to.
+     * Представления TreeMap не копируют данные, поэтому стоимость пропорциональна размеру результата.
+     */
+    private static List<Task> first(NavigableMap<Key, Task> range, LocalDateTime to, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Лимит должен быть положительным");
+        }
+        if (to != null) {
+            range = range.headMap(lowerBound(to), false);
+        }
+        List<Task> result = new ArrayList<>(Math.min(limit, 64));
+        for (Task task : range.values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    /**
+     * Ключ, который меньше всех задач с началом в time и больше всех задач, начинающихся раньше.
+     */
+    private static Key lowerBound(LocalDateTime time) {
+        return new Key(time, Integer.MIN_VALUE);
+    }
+}
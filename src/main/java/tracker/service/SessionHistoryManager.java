@@ -0,0 +1,203 @@
+package tracker.service;
+
+import tracker.entity.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * История просмотров с разделением по сессиям клиентов.
+ * <p>
+ * Сессия текущего потока задаётся {@link #bind(String)} (например, HTTP-фильтром по заголовку запроса);
+ * без привязки используется сессия {@link #DEFAULT_SESSION}. Для каждой сессии фабрика создаёт
+ * собственную историю, доступ к которой синхронизирован только на этой сессии, поэтому разные клиенты
+ * не конкурируют за один список.
+ * <p>
+ * Сессии без обращений дольше idleTimeout удаляются. Количество сессий ограничено maxSessions:
+ * при превышении удаляется сессия с самым давним обращением. Вместе с ограниченной историей каждой
+ * сессии это ограничивает общий объём памяти. Сессии хранятся в порядке обращений, поэтому
+ * и вытеснение по лимиту, и удаление бездействующих начинаются с головы списка и не требуют
+ * просмотра всех сессий.
+ * <p>
+ * Удаление задачи ({@link #remove}) применяется ко всем сессиям.
+ * <p>
+ * Каждое изменение истории сессии, в том числе изменение на месте просмотренной сущности ({@link #changed}),
+ * присваивает ей новую версию ({@link #getVersion()}) из общего счётчика,
+ * поэтому версии не повторяются и у сессии, созданной заново после удаления.
+ */
+public class SessionHistoryManager implements HistoryManager {
+    public static final String DEFAULT_SESSION = "default";
+
+    private final Supplier<HistoryManager> historyFactory;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final LongSupplier clock;
+    // Порядок обращений: первой идёт сессия с самым давним обращением. Доступ под блокировкой sessions
+    private final LinkedHashMap<String, Session> sessions;
+    private final ThreadLocal<String> currentSession = new ThreadLocal<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    private static class Session {
+        final HistoryManager history;
+        // Изменяется под блокировкой sessions
+        long lastAccess;
+        // Изменяется под блокировкой сессии
+        long version;
+
+        Session(HistoryManager history, long version) {
+            this.history = history;
+            this.version = version;
+        }
+    }
+
+    /**
+     * @param historyFactory создаёт историю для новой сессии
+     * @param idleTimeout    время бездействия, после которого сессия удаляется
+     * @param maxSessions    максимальное количество одновременно хранимых сессий
+     */
+    public SessionHistoryManager(Supplier<HistoryManager> historyFactory, Duration idleTimeout, int maxSessions) {
+        this(historyFactory, idleTimeout, maxSessions, System::nanoTime);
+    }
+
+    SessionHistoryManager(Supplier<HistoryManager> historyFactory, Duration idleTimeout, int maxSessions,
+                          LongSupplier clock) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Количество сессий должно быть положительным");
+        }
+        this.historyFactory = historyFactory;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    /**
+     * Привязывает текущий поток к сессии до вызова {@link #unbind()}.
+     *
+     * @param sessionId идентификатор сессии
+     */
+    public void bind(String sessionId) {
+        currentSession.set(sessionId);
+    }
+
+    /**
+     * Снимает привязку текущего потока к сессии.
+     */
+    public void unbind() {
+        currentSession.remove();
+    }
+
+    /**
+     * @return идентификатор сессии текущего потока
+     */
+    public String getCurrentSessionId() {
+        String sessionId = currentSession.get();
+        return sessionId != null ? sessionId : DEFAULT_SESSION;
+    }
+
+    /**
+     * Версия истории сессии текущего потока: меняется при каждом изменении этой истории,
+     * а также при создании сессии (в том числе после её удаления по бездействию или лимиту).
+     */
+    public long getVersion() {
+        Session session = currentSession();
+        synchronized (session) {
+            return session.version;
+        }
+    }
+
+    /**
+     * @return количество хранимых сессий
+     */
+    public int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+        Session session = currentSession();
+        synchronized (session) {
+            session.history.add(task);
+            session.version = versions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        for (Session session : allSessions()) {
+            synchronized (session) {
+                session.history.remove(id);
+                session.version = versions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Меняет версию всех сессий: изменённая сущность может быть в истории любой из них.
+     */
+    @Override
+    public void changed(int id) {
+        for (Session session : allSessions()) {
+            synchronized (session) {
+                session.history.changed(id);
+                session.version = versions.incrementAndGet();
+            }
+        }
+    }
+
+    private List<Session> allSessions() {
+        synchronized (sessions) {
+            return new ArrayList<>(sessions.values());
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        Session session = currentSession();
+        synchronized (session) {
+            return session.history.getHistory();
+        }
+    }
+
+    private Session currentSession() {
+        String sessionId = getCurrentSessionId();
+        long now = clock.getAsLong();
+        synchronized (sessions) {
+            evictIdleSessions(now);
+            // get переносит сессию в конец списка; новая сессия сверх лимита вытесняет первую (removeEldestEntry)
+            Session session = sessions.get(sessionId);
+            if (session == null) {
+                session = new Session(historyFactory.get(), versions.incrementAndGet());
+                sessions.put(sessionId, session);
+            }
+            session.lastAccess = now;
+            return session;
+        }
+    }
+
+    /**
+     * Удаляет сессии без обращений дольше idleTimeout. Сессии упорядочены по времени обращения,
+     * поэтому просмотр останавливается на первой активной.
+     */
+    private void evictIdleSessions(long now) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext() && now - iterator.next().lastAccess > idleTimeoutNanos) {
+            iterator.remove();
+        }
+    }
+}
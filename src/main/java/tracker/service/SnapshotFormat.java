@@ -0,0 +1,15 @@
+package tracker.service;
+
+/**
+ * Формат файла снимка состояния {@link FileBackedTaskManager}.
+ */
+public enum SnapshotFormat {
+    /**
+     * Текстовый CSV: строка заголовка и по одной строке на сущность.
+     */
+    CSV,
+    /**
+     * Компактный двоичный формат, читаемый через отображение файла в память.
+     */
+    BINARY
+}
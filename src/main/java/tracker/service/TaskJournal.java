@@ -0,0 +1,209 @@
+package tracker.service;
+
+import tracker.exceptions.ManagerSaveException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений (write-ahead log) для {@link FileBackedTaskManager}.
+ * Каждая операция дописывается в конец файла одной строкой:
+ * <ul>
+ *     <li>{@code P,<строка CSV>} - создание или обновление сущности;</li>
+ *     <li>{@code D,<id>[,<id>...]} - удаление сущностей;</li>
+ *     <li>{@code C,<TASK|SUBTASK|EPIC>} - удаление всех сущностей типа.</li>
+ * </ul>
+ * Запись считается завершённой только после символа перевода строки,
+ * поэтому оборванная при сбое последняя запись отбрасывается при чтении.
+ * <p>
+ * Базовая реализация пишет синхронно; {@link AsyncTaskJournal} переносит запись в фоновый поток.
+ * Каждый пакет записей после записи синхронизируется с диском (fsync), поэтому записанная операция
+ * переживает не только падение процесса, но и отключение питания.
+ */
+class TaskJournal implements AutoCloseable {
+    static final char PUT = 'P';
+    static final char DELETE = 'D';
+    static final char CLEAR = 'C';
+
+    private final File file;
+    private final PersistenceStats stats = new PersistenceStats();
+    private FileOutputStream output;
+    private int records;
+
+    /**
+     * Открывает журнал на дозапись.
+     *
+     * @param file файл журнала (создаётся при отсутствии)
+     */
+    TaskJournal(File file) {
+        this.file = file;
+        open();
+    }
+
+    /**
+     * @return количество записей с момента последнего снимка
+     */
+    int size() {
+        return records;
+    }
+
+    /**
+     * @return метрики записи журнала
+     */
+    PersistenceStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return true, если записи сбрасываются на диск фоновым потоком
+     */
+    boolean isAsynchronous() {
+        return false;
+    }
+
+    /**
+     * Дописывает запись в конец журнала.
+     *
+     * @param record запись без завершающего перевода строки
+     */
+    void append(String record) {
+        doAppend(record);
+        records++;
+    }
+
+    /**
+     * Дописывает записи одной операции (например, пакета изменений) подряд.
+     *
+     * @param batch записи без завершающего перевода строки
+     */
+    void appendAll(List<String> batch) {
+        doAppendAll(batch);
+        records += batch.size();
+    }
+
+    /**
+     * Записывает снимок состояния и очищает журнал.
+     *
+     * @param snapshotWriter действие, записывающее полный снимок состояния
+     */
+    void checkpoint(Runnable snapshotWriter) {
+        doCheckpoint(snapshotWriter);
+        records = 0;
+    }
+
+    /**
+     * Дожидается, пока все добавленные записи будут записаны и синхронизированы с диском.
+     * Синхронный журнал делает это при каждой записи, поэтому ничего не делает.
+     */
+    void flush() {
+    }
+
+    protected void doAppend(String record) {
+        writeRecords(List.of(record));
+    }
+
+    protected void doAppendAll(List<String> batch) {
+        writeRecords(batch);
+    }
+
+    /**
+     * Записывает снимок и очищает журнал. snapshotWriter возвращает управление, когда снимок
+     * синхронизирован с диском и переименован, поэтому записи журнала до снимка не теряются
+     * при отключении питания между этими шагами.
+     */
+    protected void doCheckpoint(Runnable snapshotWriter) {
+        snapshotWriter.run();
+        truncateFile();
+    }
+
+    /**
+     * Дописывает пакет записей одной операцией записи и синхронизирует файл с диском.
+     * Время синхронизации входит во время сброса пакета в метриках.
+     *
+     * @param batch записи без завершающего перевода строки
+     */
+    protected void writeRecords(List<String> batch) {
+        long startedAt = System.nanoTime();
+        StringBuilder content = new StringBuilder();
+        for (String record : batch) {
+            content.append(record).append('\n');
+        }
+        try {
+            output.write(content.toString().getBytes(StandardCharsets.UTF_8));
+            // flush() передаёт байты только в кеш ОС; на диске они оказываются после force
+            output.getChannel().force(false);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал");
+        }
+        stats.recordBatch(batch.size(), System.nanoTime() - startedAt);
+    }
+
+    protected void truncateFile() {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка очистки журнала");
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия журнала");
+        }
+    }
+
+    private void open() {
+        try {
+            output = new FileOutputStream(file, true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка открытия журнала");
+        }
+    }
+
+    /**
+     * Последовательно передаёт обработчику все завершённые записи журнала.
+     * Оборванная последняя запись отбрасывается, а файл обрезается до последней целой записи.
+     *
+     * @param file    файл журнала
+     * @param handler обработчик записей
+     * @return количество прочитанных записей
+     */
+    static int replay(File file, Consumer<String> handler) {
+        if (!file.exists()) {
+            return 0;
+        }
+        try {
+            byte[] content = Files.readAllBytes(file.toPath());
+            int count = 0;
+            int lineStart = 0;
+            for (int i = 0; i < content.length; i++) {
+                if (content[i] == '\n') {
+                    if (i > lineStart) {
+                        handler.accept(new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                        count++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < content.length) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(lineStart);
+                }
+            }
+            return count;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала");
+        }
+    }
+}
@@ -7,9 +7,21 @@ import tracker.entity.Task;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TaskManager {
+    /**
+     * Наборы данных, для которых ведутся счётчики версий (см. {@link #getVersion(DataSet)}).
+     */
+    enum DataSet {
+        TASKS,
+        SUBTASKS,
+        EPICS,
+        HISTORY,
+        PRIORITIZED
+    }
+
     List<Task> getHistory();
 
     // Методы для Task
@@ -59,6 +71,31 @@ public interface TaskManager {
 
     List<Subtask> getEpicSubtasks(int epicId);
 
+    /**
+     * Возвращает задачу без добавления в историю просмотров.
+     * Предназначен для внутренних проверок (например, существования перед обновлением).
+     *
+     * @param id идентификатор задачи
+     * @return задача или null, если не найдена
+     */
+    Task peekTask(int id);
+
+    /**
+     * Возвращает подзадачу без добавления в историю просмотров.
+     *
+     * @param id идентификатор подзадачи
+     * @return подзадача или null, если не найдена
+     */
+    Subtask peekSubtask(int id);
+
+    /**
+     * Возвращает эпик без добавления в историю просмотров.
+     *
+     * @param id идентификатор эпика
+     * @return эпик или null, если не найден
+     */
+    Epic peekEpic(int id);
+
     /**
      * Возвращает список задач, отсортированных по приоритету (времени начала).
      * Задачи без времени начала не включаются в список.
@@ -67,6 +104,30 @@ public interface TaskManager {
      */
     List<Task> getPrioritizedTasks();
 
+    /**
+     * Возвращает первые limit задач в порядке приоритета с временем начала в полуинтервале [from, to).
+     * Стоимость пропорциональна размеру результата, а не количеству всех задач.
+     *
+     * @param from  начало интервала включительно или null без ограничения
+     * @param to    конец интервала не включительно или null без ограничения
+     * @param limit максимальное количество задач в результате
+     * @return отсортированный список задач
+     */
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Возвращает следующую страницу задач в порядке приоритета: первые limit задач,
+     * идущих строго после задачи с указанными временем начала и id (курсор).
+     * Задача курсора может быть уже удалена - страница всё равно продолжится с нужного места.
+     *
+     * @param cursorStart время начала последней задачи предыдущей страницы
+     * @param cursorId    id последней задачи предыдущей страницы
+     * @param to          конец интервала не включительно или null без ограничения
+     * @param limit       максимальное количество задач в результате
+     * @return отсортированный список задач
+     */
+    List<Task> getPrioritizedTasksAfter(LocalDateTime cursorStart, int cursorId, LocalDateTime to, int limit);
+
     /**
      * Проверяет, есть ли пересечение по времени между новой задачей и существующими.
      *
@@ -74,4 +135,82 @@ public interface TaskManager {
      * @return true если есть пересечение, false если нет
      */
     boolean hasTimeConflict(Task newTask);
-}
\ No newline at end of file
+
+    /**
+     * Находит самое раннее время, начиная с которого свободен интервал заданной длительности.
+     * Учитываются задачи и подзадачи с заданными временем начала и продолжительностью.
+     *
+     * @param duration длительность интервала, больше нуля
+     * @param after    самое раннее допустимое начало
+     * @param before   самое позднее допустимое окончание или null без ограничения
+     * @return начало свободного интервала или null, если до before его нет
+     */
+    LocalDateTime findNextFreeSlot(Duration duration, LocalDateTime after, LocalDateTime before);
+
+    /**
+     * Создаёт задачу в первом свободном интервале, начиная с after.
+     * Поиск интервала и создание выполняются атомарно.
+     *
+     * @param name        название задачи
+     * @param description описание задачи
+     * @param status      статус задачи
+     * @param duration    продолжительность задачи, больше нуля
+     * @param after       самое раннее допустимое начало
+     * @return созданная задача с назначенным временем начала
+     */
+    Task createTaskInFreeSlot(String name, String description, Status status, Duration duration, LocalDateTime after);
+
+    /**
+     * Применяет пакет операций по порядку по принципу «всё или ничего»: если хотя бы одна создаваемая
+     * задача пересекается по времени с существующими (с учётом удалений и созданий, идущих в пакете раньше)
+     * или ссылается на несуществующий эпик, пакет не применяется целиком.
+     *
+     * @param operations операции пакета
+     * @return созданные задачи и подзадачи в порядке операций
+     * @throws tracker.exceptions.ManagerSaveException при пересечении по времени
+     * @throws tracker.exceptions.NotFoundException    если эпик создаваемой подзадачи не найден
+     */
+    List<Task> applyBatch(List<BatchOperation> operations);
+
+    /**
+     * Создаёт задачи одним пакетом (см. {@link #applyBatch}).
+     *
+     * @param drafts черновики задач; их id не используются
+     * @return созданные задачи
+     */
+    List<Task> createTasks(List<Task> drafts);
+
+    /**
+     * Создаёт подзадачи одним пакетом (см. {@link #applyBatch}).
+     *
+     * @param drafts черновики подзадач; их id не используются
+     * @return созданные подзадачи
+     */
+    List<Subtask> createSubtasks(List<Subtask> drafts);
+
+    /**
+     * Удаляет задачи, подзадачи и эпики (вместе с их подзадачами) одним пакетом.
+     * Отсутствующие id пропускаются.
+     *
+     * @param ids идентификаторы удаляемых сущностей
+     */
+    void deleteTasks(Collection<Integer> ids);
+
+    /**
+     * Возвращает версию набора данных. Версия монотонно растёт при каждом изменении набора и не меняется,
+     * пока он не изменился, поэтому по ней можно проверить актуальность ранее полученных данных,
+     * не читая их. Чтобы не выдать старую версию вместе с новыми данными, версию нужно читать до данных.
+     *
+     * @param dataSet набор данных
+     * @return текущая версия набора
+     */
+    long getVersion(DataSet dataSet);
+
+    /**
+     * Возвращает версию задачи, подзадачи или эпика. Версия эпика меняется и при изменении его подзадач.
+     *
+     * @param id идентификатор сущности
+     * @return текущая версия или -1, если сущности нет
+     */
+    long getVersion(int id);
+}
@@ -0,0 +1,272 @@
+package tracker.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Индекс временных интервалов [start, end) для быстрой проверки пересечений.
+ * Реализован как AVL-дерево, упорядоченное по (start, id), где каждый узел
+ * хранит максимальное время окончания в своём поддереве (maxEnd).
+ * Вставка, удаление и проверка пересечения выполняются за O(log n).
+ */
+class TimeIntervalIndex {
+    private static class Node {
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        LocalDateTime maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(int id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    /**
+     * @return количество интервалов в индексе
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Добавляет интервал задачи в индекс.
+     *
+     * @param id    идентификатор задачи
+     * @param start время начала
+     * @param end   время окончания
+     */
+    void add(int id, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, id, start, end);
+    }
+
+    /**
+     * Удаляет интервал задачи из индекса.
+     *
+     * @param id    идентификатор задачи
+     * @param start время начала, с которым интервал был добавлен
+     * @return true, если интервал был найден и удалён
+     */
+    boolean remove(int id, LocalDateTime start) {
+        int sizeBefore = size;
+        root = delete(root, id, start);
+        return size < sizeBefore;
+    }
+
+    void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Проверяет, пересекается ли интервал [start, end) хотя бы с одним интервалом индекса.
+     *
+     * @param start     начало проверяемого интервала
+     * @param end       окончание проверяемого интервала
+     * @param excludeId идентификатор задачи, интервал которой не учитывается (сама проверяемая задача)
+     * @return true, если найдено пересечение
+     */
+    boolean overlaps(LocalDateTime start, LocalDateTime end, int excludeId) {
+        return overlaps(root, start, end, excludeId);
+    }
+
+    /**
+     * Находит самое раннее начало свободного интервала длиной duration, не раньше after,
+     * который заканчивается не позже before.
+     * <p>
+     * Если кандидат [t, t + duration) пересекается с чем-то, то все интервалы, начинающиеся раньше t + duration,
+     * заканчиваются не позже их максимального окончания M, а любой кандидат из [t, M) пересекается с интервалом,
+     * который заканчивается в M. Поэтому кандидат сразу переносится в M: каждый шаг перепрыгивает хотя бы
+     * один занятый интервал и стоит O(log n).
+     *
+     * @param after    самое раннее допустимое начало
+     * @param duration длительность свободного интервала
+     * @param before   самое позднее допустимое окончание или null без ограничения
+     * @return начало свободного интервала или null, если до before его нет
+     */
+    LocalDateTime findFreeSlot(LocalDateTime after, Duration duration, LocalDateTime before) {
+        LocalDateTime candidate = after;
+        while (true) {
+            LocalDateTime end = candidate.plus(duration);
+            if (before != null && end.isAfter(before)) {
+                return null;
+            }
+            LocalDateTime busyUntil = maxEndStartingBefore(end);
+            if (busyUntil == null || !busyUntil.isAfter(candidate)) {
+                return candidate;
+            }
+            candidate = busyUntil;
+        }
+    }
+
+    /**
+     * @return максимальное окончание среди интервалов, начинающихся раньше bound, или null, если таких нет
+     */
+    private LocalDateTime maxEndStartingBefore(LocalDateTime bound) {
+        LocalDateTime result = null;
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(bound)) {
+                // Узел и всё его левое поддерево начинаются раньше bound
+                result = later(result, node.end);
+                if (node.left != null) {
+                    result = later(result, node.left.maxEnd);
+                }
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    private static LocalDateTime later(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    private boolean overlaps(Node node, LocalDateTime start, LocalDateTime end, int excludeId) {
+        while (node != null) {
+            // В поддереве нет интервалов, заканчивающихся позже start
+            if (!node.maxEnd.isAfter(start)) {
+                return false;
+            }
+            if (node.left != null && node.left.maxEnd.isAfter(start)
+                    && overlaps(node.left, start, end, excludeId)) {
+                return true;
+            }
+            // Узел и всё правое поддерево начинаются не раньше end
+            if (!node.start.isBefore(end)) {
+                return false;
+            }
+            if (node.id != excludeId && node.end.isAfter(start)) {
+                return true;
+            }
+            node = node.right;
+        }
+        return false;
+    }
+
+    private static int compare(LocalDateTime start, int id, Node node) {
+        int result = start.compareTo(node.start);
+        return result != 0 ? result : Integer.compare(id, node.id);
+    }
+
+    private Node insert(Node node, int id, LocalDateTime start, LocalDateTime end) {
+        if (node == null) {
+            size++;
+            return new Node(id, start, end);
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, id, start, end);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, id, start, end);
+        } else {
+            // Повторная вставка того же ключа заменяет интервал
+            Node replacement = new Node(id, start, end);
+            replacement.left = node.left;
+            replacement.right = node.right;
+            replacement.height = node.height;
+            update(replacement);
+            return replacement;
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, int id, LocalDateTime start) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, id, start);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, id, start);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node replacement = new Node(successor.id, successor.start, successor.end);
+            replacement.right = removeMin(node.right);
+            replacement.left = node.left;
+            return balance(replacement);
+        }
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+}
@@ -0,0 +1,475 @@
+package tracker.service;
+
+import tracker.entity.Epic;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+import tracker.entity.Task;
+import tracker.util.LatencyHistogram;
+import tracker.util.PrometheusWriter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Менеджер задач, измеряющий время каждой операции делегата.
+ * <p>
+ * Для каждой операции ведётся {@link LatencyHistogram}; перегруженные методы учитываются под одним именем.
+ * Время включает ожидание блокировок делегата, поэтому по нему видна и конкуренция за менеджер.
+ * Замер - два вызова {@link System#nanoTime()} и атомарные инкременты без выделения памяти.
+ * Версии данных ({@link #getVersion}) не замеряются: они читаются на каждом GET и стоят дешевле самого замера.
+ */
+public class TimedTaskManager implements TaskManager {
+    /**
+     * Измеряемые операции с именами соответствующих методов {@link TaskManager}.
+     */
+    public enum Operation {
+        GET_HISTORY("getHistory"),
+        GET_ALL_TASKS("getAllTasks"),
+        DELETE_ALL_TASKS("deleteAllTasks"),
+        GET_TASK("getTask"),
+        CREATE_TASK("createTask"),
+        UPDATE_TASK("updateTask"),
+        DELETE_TASK("deleteTask"),
+        GET_ALL_SUBTASKS("getAllSubtasks"),
+        DELETE_ALL_SUBTASKS("deleteAllSubtasks"),
+        GET_SUBTASK("getSubtask"),
+        CREATE_SUBTASK("createSubtask"),
+        UPDATE_SUBTASK("updateSubtask"),
+        DELETE_SUBTASK("deleteSubtask"),
+        GET_ALL_EPICS("getAllEpics"),
+        DELETE_ALL_EPICS("deleteAllEpics"),
+        GET_EPIC("getEpic"),
+        CREATE_EPIC("createEpic"),
+        UPDATE_EPIC("updateEpic"),
+        DELETE_EPIC("deleteEpic"),
+        GET_EPIC_SUBTASKS("getEpicSubtasks"),
+        PEEK_TASK("peekTask"),
+        PEEK_SUBTASK("peekSubtask"),
+        PEEK_EPIC("peekEpic"),
+        GET_PRIORITIZED_TASKS("getPrioritizedTasks"),
+        GET_PRIORITIZED_TASKS_AFTER("getPrioritizedTasksAfter"),
+        HAS_TIME_CONFLICT("hasTimeConflict"),
+        FIND_NEXT_FREE_SLOT("findNextFreeSlot"),
+        CREATE_TASK_IN_FREE_SLOT("createTaskInFreeSlot"),
+        APPLY_BATCH("applyBatch"),
+        CREATE_TASKS("createTasks"),
+        CREATE_SUBTASKS("createSubtasks"),
+        DELETE_TASKS("deleteTasks");
+
+        private final String methodName;
+
+        Operation(String methodName) {
+            this.methodName = methodName;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final TaskManager delegate;
+    private final LatencyHistogram[] timings = new LatencyHistogram[OPERATIONS.length];
+
+    /**
+     * @param delegate менеджер, операции которого измеряются
+     */
+    public TimedTaskManager(TaskManager delegate) {
+        this.delegate = delegate;
+        for (int i = 0; i < timings.length; i++) {
+            timings[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @return гистограмма времени выполнения операции в наносекундах
+     */
+    public LatencyHistogram getTimings(Operation operation) {
+        return timings[operation.ordinal()];
+    }
+
+    /**
+     * Выводит метрику tracker_manager_operation_duration_seconds для операций, которые уже вызывались.
+     */
+    public void writeTo(PrometheusWriter writer) {
+        writer.header("tracker_manager_operation_duration_seconds", "histogram",
+                "Время выполнения операций менеджера задач");
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram histogram = timings[operation.ordinal()];
+            if (histogram.getCount() > 0) {
+                writer.histogram("tracker_manager_operation_duration_seconds",
+                        PrometheusWriter.labels("operation", operation.getMethodName()), histogram);
+            }
+        }
+    }
+
+    private void record(Operation operation, long start) {
+        timings[operation.ordinal()].record(System.nanoTime() - start);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getHistory();
+        } finally {
+            record(Operation.GET_HISTORY, start);
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllTasks();
+        } finally {
+            record(Operation.GET_ALL_TASKS, start);
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAllTasks();
+        } finally {
+            record(Operation.DELETE_ALL_TASKS, start);
+        }
+    }
+
+    @Override
+    public Task getTask(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getTask(id);
+        } finally {
+            record(Operation.GET_TASK, start);
+        }
+    }
+
+    @Override
+    public Task createTask(String name, String description, Status status) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createTask(name, description, status);
+        } finally {
+            record(Operation.CREATE_TASK, start);
+        }
+    }
+
+    @Override
+    public Task createTask(String name, String description, Status status,
+                           Duration duration, LocalDateTime startTime) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createTask(name, description, status, duration, startTime);
+        } finally {
+            record(Operation.CREATE_TASK, start);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateTask(task);
+        } finally {
+            record(Operation.UPDATE_TASK, start);
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteTask(id);
+        } finally {
+            record(Operation.DELETE_TASK, start);
+        }
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllSubtasks();
+        } finally {
+            record(Operation.GET_ALL_SUBTASKS, start);
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAllSubtasks();
+        } finally {
+            record(Operation.DELETE_ALL_SUBTASKS, start);
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSubtask(id);
+        } finally {
+            record(Operation.GET_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(String name, String description, Status status, int epicId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createSubtask(name, description, status, epicId);
+        } finally {
+            record(Operation.CREATE_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(String name, String description, Status status,
+                                 int epicId, Duration duration, LocalDateTime startTime) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createSubtask(name, description, status, epicId, duration, startTime);
+        } finally {
+            record(Operation.CREATE_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateSubtask(subtask);
+        } finally {
+            record(Operation.UPDATE_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteSubtask(id);
+        } finally {
+            record(Operation.DELETE_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllEpics();
+        } finally {
+            record(Operation.GET_ALL_EPICS, start);
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAllEpics();
+        } finally {
+            record(Operation.DELETE_ALL_EPICS, start);
+        }
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getEpic(id);
+        } finally {
+            record(Operation.GET_EPIC, start);
+        }
+    }
+
+    @Override
+    public Epic createEpic(String name, String description) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createEpic(name, description);
+        } finally {
+            record(Operation.CREATE_EPIC, start);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateEpic(epic);
+        } finally {
+            record(Operation.UPDATE_EPIC, start);
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteEpic(id);
+        } finally {
+            record(Operation.DELETE_EPIC, start);
+        }
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getEpicSubtasks(epicId);
+        } finally {
+            record(Operation.GET_EPIC_SUBTASKS, start);
+        }
+    }
+
+    @Override
+    public Task peekTask(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.peekTask(id);
+        } finally {
+            record(Operation.PEEK_TASK, start);
+        }
+    }
+
+    @Override
+    public Subtask peekSubtask(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.peekSubtask(id);
+        } finally {
+            record(Operation.PEEK_SUBTASK, start);
+        }
+    }
+
+    @Override
+    public Epic peekEpic(int id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.peekEpic(id);
+        } finally {
+            record(Operation.PEEK_EPIC, start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasks();
+        } finally {
+            record(Operation.GET_PRIORITIZED_TASKS, start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasks(from, to, limit);
+        } finally {
+            record(Operation.GET_PRIORITIZED_TASKS, start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime cursorStart, int cursorId, LocalDateTime to, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasksAfter(cursorStart, cursorId, to, limit);
+        } finally {
+            record(Operation.GET_PRIORITIZED_TASKS_AFTER, start);
+        }
+    }
+
+    @Override
+    public boolean hasTimeConflict(Task newTask) {
+        long start = System.nanoTime();
+        try {
+            return delegate.hasTimeConflict(newTask);
+        } finally {
+            record(Operation.HAS_TIME_CONFLICT, start);
+        }
+    }
+
+    @Override
+    public LocalDateTime findNextFreeSlot(Duration duration, LocalDateTime after, LocalDateTime before) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findNextFreeSlot(duration, after, before);
+        } finally {
+            record(Operation.FIND_NEXT_FREE_SLOT, start);
+        }
+    }
+
+    @Override
+    public Task createTaskInFreeSlot(String name, String description, Status status,
+                                     Duration duration, LocalDateTime after) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createTaskInFreeSlot(name, description, status, duration, after);
+        } finally {
+            record(Operation.CREATE_TASK_IN_FREE_SLOT, start);
+        }
+    }
+
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        long start = System.nanoTime();
+        try {
+            return delegate.applyBatch(operations);
+        } finally {
+            record(Operation.APPLY_BATCH, start);
+        }
+    }
+
+    @Override
+    public List<Task> createTasks(List<Task> drafts) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createTasks(drafts);
+        } finally {
+            record(Operation.CREATE_TASKS, start);
+        }
+    }
+
+    @Override
+    public List<Subtask> createSubtasks(List<Subtask> drafts) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createSubtasks(drafts);
+        } finally {
+            record(Operation.CREATE_SUBTASKS, start);
+        }
+    }
+
+    @Override
+    public void deleteTasks(Collection<Integer> ids) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteTasks(ids);
+        } finally {
+            record(Operation.DELETE_TASKS, start);
+        }
+    }
+
+    @Override
+    public long getVersion(DataSet dataSet) {
+        return delegate.getVersion(dataSet);
+    }
+
+    @Override
+    public long getVersion(int id) {
+        return delegate.getVersion(id);
+    }
+}
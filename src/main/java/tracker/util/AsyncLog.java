@@ -0,0 +1,288 @@
+package tracker.util;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронный журнал: сообщения складываются в кольцевой буфер и выводятся фоновым потоком.
+ * <p>
+ * Поток запроса только проверяет уровень, занимает ячейку буфера атомарным инкрементом и копирует
+ * в неё шаблон и аргументы; подстановка аргументов, форматирование времени и запись в поток вывода
+ * выполняются фоновым потоком пачками, поэтому обработчики не форматируют строки и не ждут друг
+ * друга на блокировке System.out. Ячейки буфера создаются заранее и переиспользуются.
+ * <p>
+ * Если буфер заполнен, сообщение отбрасывается, а не задерживает запрос; количество отброшенных
+ * сообщений выводится в журнал при следующей записи и доступно через {@link #getDropped()}.
+ * Так как аргументы форматируются позже, передавать в журнал следует неизменяемые значения
+ * (идентификаторы, строки), а не изменяемые объекты.
+ */
+public class AsyncLog implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static volatile AsyncLog defaultLog;
+
+    /**
+     * Ячейка буфера. Поля пишет поток, занявший ячейку, и читает фоновый поток после публикации.
+     */
+    private static final class Event {
+        LogLevel level;
+        long timeMillis;
+        String thread;
+        String logger;
+        String pattern;
+        int argCount;
+        Object arg1;
+        Object arg2;
+        Throwable thrown;
+    }
+
+    private final Event[] slots;
+    private final int mask;
+    // Ячейка i готова к записи с позиции p, когда sequences[i] == p, и к чтению, когда sequences[i] == p + 1
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final PrintStream out;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Thread drainer;
+
+    private volatile int threshold;
+    private volatile long written;
+    private volatile boolean closed;
+    private long head;
+    private long reportedDropped;
+
+    /**
+     * @param level    наименьший выводимый уровень
+     * @param capacity размер буфера; округляется вверх до степени двойки
+     * @param out      поток, в который выводятся сообщения
+     */
+    public AsyncLog(LogLevel level, int capacity, PrintStream out) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер буфера журнала должен быть положительным");
+        }
+        int size = Integer.highestOneBit(Math.min(capacity, 1 << 30));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Event[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Event();
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.out = out;
+        setLevel(level);
+        this.drainer = new Thread(this::drainLoop, "tracker-log");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Общий журнал приложения. Создаётся при первом обращении по системным свойствам tracker.log.level
+     * (DEBUG, INFO, WARN, ERROR, OFF; по умолчанию INFO) и tracker.log.buffer (размер буфера)
+     * и выводит в System.out. Оставшиеся в буфере сообщения выводятся при завершении JVM.
+     */
+    public static AsyncLog getDefault() {
+        AsyncLog log = defaultLog;
+        if (log == null) {
+            synchronized (AsyncLog.class) {
+                log = defaultLog;
+                if (log == null) {
+                    LogLevel level = LogLevel.valueOf(
+                            System.getProperty("tracker.log.level", LogLevel.INFO.name()).toUpperCase());
+                    int capacity = Integer.getInteger("tracker.log.buffer", DEFAULT_CAPACITY);
+                    log = new AsyncLog(level, capacity, System.out);
+                    Runtime.getRuntime().addShutdownHook(new Thread(log::close, "tracker-log-shutdown"));
+                    defaultLog = log;
+                }
+            }
+        }
+        return log;
+    }
+
+    public LogLevel getLevel() {
+        return LogLevel.values()[threshold];
+    }
+
+    public void setLevel(LogLevel level) {
+        this.threshold = level.ordinal();
+    }
+
+    /**
+     * @return true, если сообщения этого уровня выводятся
+     */
+    public boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= threshold;
+    }
+
+    /**
+     * Помещает сообщение в буфер. Уровень должен быть проверен вызывающим кодом.
+     *
+     * @param pattern  текст сообщения; каждое {} заменяется очередным аргументом
+     * @param argCount количество используемых аргументов (0-2)
+     * @return false, если буфер заполнен и сообщение отброшено
+     */
+    boolean offer(LogLevel level, String logger, String pattern, int argCount,
+                  Object arg1, Object arg2, Throwable thrown) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                // Фоновый поток ещё не освободил ячейку, занятую кругом раньше: буфер заполнен
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        Event event = slots[index];
+        event.level = level;
+        event.timeMillis = System.currentTimeMillis();
+        event.thread = Thread.currentThread().getName();
+        event.logger = logger;
+        event.pattern = pattern;
+        event.argCount = argCount;
+        event.arg1 = arg1;
+        event.arg2 = arg2;
+        event.thrown = thrown;
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Ждёт, пока будут выведены все сообщения, помещённые в буфер до вызова (не дольше 5 секунд).
+     */
+    public void flush() {
+        long target = tail.get();
+        long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+        while (written < target && drainer.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.unpark(drainer);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * Выводит оставшиеся сообщения и останавливает фоновый поток.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.NANOSECONDS.toMillis(FLUSH_TIMEOUT_NANOS));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return количество сообщений, отброшенных из-за заполненного буфера
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder(8192);
+        while (true) {
+            boolean wasClosed = closed;
+            if (drain(batch) > 0 || batch.length() > 0) {
+                out.append(batch);
+                out.flush();
+                batch.setLength(0);
+                written = head;
+            } else if (wasClosed) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Форматирует в batch все опубликованные сообщения, но не больше размера буфера за раз.
+     *
+     * @return количество обработанных сообщений
+     */
+    private int drain(StringBuilder batch) {
+        long droppedNow = dropped.get();
+        if (droppedNow > reportedDropped) {
+            appendPrefix(batch, LogLevel.WARN, System.currentTimeMillis(), drainer.getName(), "AsyncLog");
+            batch.append("Буфер журнала переполнен, отброшено сообщений: ")
+                    .append(droppedNow - reportedDropped).append('\n');
+            reportedDropped = droppedNow;
+        }
+        int count = 0;
+        while (count < slots.length) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            Event event = slots[index];
+            try {
+                format(batch, event);
+            } catch (RuntimeException formatException) {
+                // Ошибка в toString() аргумента не должна останавливать вывод журнала
+                batch.append(" [ошибка форматирования: ").append(formatException).append("]\n");
+            }
+            event.arg1 = null;
+            event.arg2 = null;
+            event.thrown = null;
+            event.pattern = null;
+            sequences.set(index, head + slots.length);
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    private void format(StringBuilder batch, Event event) {
+        appendPrefix(batch, event.level, event.timeMillis, event.thread, event.logger);
+        String pattern = event.pattern;
+        int argIndex = 0;
+        int from = 0;
+        int placeholder;
+        while (argIndex < event.argCount && (placeholder = pattern.indexOf("{}", from)) >= 0) {
+            batch.append(pattern, from, placeholder).append(argIndex == 0 ? event.arg1 : event.arg2);
+            from = placeholder + 2;
+            argIndex++;
+        }
+        batch.append(pattern, from, pattern.length()).append('\n');
+        if (event.thrown != null) {
+            StringWriter trace = new StringWriter();
+            event.thrown.printStackTrace(new PrintWriter(trace));
+            batch.append(trace);
+        }
+    }
+
+    private void appendPrefix(StringBuilder batch, LogLevel level, long timeMillis, String thread, String logger) {
+        TIME_FORMAT.formatTo(LocalDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), zone), batch);
+        batch.append(' ').append(level.name());
+        for (int i = level.name().length(); i < 5; i++) {
+            batch.append(' ');
+        }
+        batch.append(" [").append(thread).append("] ").append(logger).append(" - ");
+    }
+}
@@ -0,0 +1,131 @@
+package tracker.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек в наносекундах с логарифмически-линейными корзинами (как в HdrHistogram).
+ * <p>
+ * Каждая степень двойки делится на {@value #SUB_BUCKETS} равных корзин, поэтому относительная
+ * погрешность значения не превышает 1/{@value #SUB_BUCKETS} во всём диапазоне от наносекунд до
+ * {@link #MAX_VALUE}; большие значения попадают в последнюю корзину. Запись - вычисление индекса
+ * и атомарные инкременты счётчиков, без блокировок и выделения памяти, поэтому её можно вызывать
+ * на каждом запросе из любого числа потоков.
+ * <p>
+ * Чтение ({@link #countAtOrBelow}, {@link #valueAtQuantile}) не атомарно относительно записи:
+ * параллельные записи могут быть учтены частично, что для метрик допустимо.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 42;
+
+    /**
+     * Наибольшее различимое значение (около 73 минут); большие значения учитываются как оно.
+     */
+    public static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Учитывает значение.
+     *
+     * @param nanos задержка в наносекундах; отрицательные значения считаются нулём
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * @return количество учтённых значений
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return сумма учтённых значений в наносекундах
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * @return наибольшее учтённое значение в наносекундах
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Количество значений, не превышающих bound (с точностью до корзины: корзина учитывается,
+     * если её верхняя граница не больше bound).
+     *
+     * @param bound граница в наносекундах
+     */
+    public long countAtOrBelow(long bound) {
+        long result = 0;
+        for (int i = 0; i < counts.length() && upperBound(i) <= bound; i++) {
+            result += counts.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Оценка квантиля: верхняя граница корзины, в которую попадает значение с этим рангом.
+     *
+     * @param quantile квантиль от 0 до 1
+     * @return значение в наносекундах или 0, если значений нет
+     */
+    public long valueAtQuantile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Индекс корзины: значения меньше {@value #SUB_BUCKETS} хранятся точно, далее каждая степень двойки
+     * делится на {@value #SUB_BUCKETS} корзин по старшим битам значения.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * @return наибольшее значение, попадающее в корзину index
+     */
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int mantissa = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,12 @@
+package tracker.util;
+
+/**
+ * Уровни журнала в порядке возрастания важности. OFF отключает вывод полностью.
+ */
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
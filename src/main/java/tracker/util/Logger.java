@@ -0,0 +1,72 @@
+package tracker.util;
+
+/**
+ * Именованный журнал поверх {@link AsyncLog}. Сообщение задаётся шаблоном с {} вместо аргументов;
+ * если уровень отключён, метод возвращается сразу после проверки уровня, ничего не форматируя.
+ */
+public final class Logger {
+    private final String name;
+    private final AsyncLog log;
+
+    public Logger(String name, AsyncLog log) {
+        this.name = name;
+        this.log = log;
+    }
+
+    /**
+     * @return журнал с простым именем класса, выводящий в {@link AsyncLog#getDefault()}
+     */
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getSimpleName(), AsyncLog.getDefault());
+    }
+
+    public boolean isDebugEnabled() {
+        return log.isEnabled(LogLevel.DEBUG);
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, 0, null, null, null);
+    }
+
+    public void debug(String pattern, Object arg) {
+        log(LogLevel.DEBUG, pattern, 1, arg, null, null);
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        log(LogLevel.DEBUG, pattern, 2, arg1, arg2, null);
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, 0, null, null, null);
+    }
+
+    public void info(String pattern, Object arg) {
+        log(LogLevel.INFO, pattern, 1, arg, null, null);
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        log(LogLevel.INFO, pattern, 2, arg1, arg2, null);
+    }
+
+    public void warn(String pattern, Object arg) {
+        log(LogLevel.WARN, pattern, 1, arg, null, null);
+    }
+
+    public void warn(String message, Throwable thrown) {
+        log(LogLevel.WARN, message, 0, null, null, thrown);
+    }
+
+    public void error(String message, Throwable thrown) {
+        log(LogLevel.ERROR, message, 0, null, null, thrown);
+    }
+
+    public void error(String pattern, Object arg, Throwable thrown) {
+        log(LogLevel.ERROR, pattern, 1, arg, null, thrown);
+    }
+
+    private void log(LogLevel level, String pattern, int argCount, Object arg1, Object arg2, Throwable thrown) {
+        if (log.isEnabled(level)) {
+            log.offer(level, name, pattern, argCount, arg1, arg2, thrown);
+        }
+    }
+}
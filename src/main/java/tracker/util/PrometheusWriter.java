@@ -0,0 +1,100 @@
+package tracker.util;
+
+/**
+ * Формирует метрики в текстовом формате Prometheus (версия 0.0.4).
+ * Гистограммы задержек выводятся в секундах с фиксированным набором границ корзин.
+ */
+public class PrometheusWriter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String[] BUCKET_LABELS = {
+            "0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025",
+            "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"
+    };
+    private static final long[] BUCKET_NANOS = {
+            100_000L, 250_000L, 500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L,
+            50_000_000L, 100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L,
+            5_000_000_000L, 10_000_000_000L
+    };
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    /**
+     * Выводит описание метрики. Должно идти перед её значениями, по одному разу на метрику.
+     *
+     * @param type counter, gauge или histogram
+     */
+    public PrometheusWriter header(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n"))
+                .append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * @param labels метки, сформированные {@link #labels(String...)}, или пустая строка
+     */
+    public PrometheusWriter sample(String name, String labels, long value) {
+        appendName(name, labels).append(' ').append(value).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, String labels, double value) {
+        appendName(name, labels).append(' ').append(formatDouble(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * Выводит гистограмму задержек: накопительные корзины _bucket, _sum в секундах и _count.
+     */
+    public PrometheusWriter histogram(String name, String labels, LatencyHistogram histogram) {
+        // Счётчик читаем первым: корзины, прочитанные позже, могут включать ещё несколько записей
+        long count = histogram.getCount();
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (int i = 0; i < BUCKET_NANOS.length; i++) {
+            long inBucket = Math.min(histogram.countAtOrBelow(BUCKET_NANOS[i]), count);
+            sample(name + "_bucket", prefix + "le=\"" + BUCKET_LABELS[i] + "\"", inBucket);
+        }
+        sample(name + "_bucket", prefix + "le=\"+Inf\"", count);
+        sample(name + "_sum", labels, histogram.getSum() / 1e9);
+        sample(name + "_count", labels, count);
+        return this;
+    }
+
+    /**
+     * Формирует метки из пар имя-значение с экранированием значений.
+     *
+     * @param pairs имена и значения меток попеременно
+     */
+    public static String labels(String... pairs) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            if (result.length() > 0) {
+                result.append(',');
+            }
+            result.append(pairs[i]).append("=\"")
+                    .append(pairs[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return result.toString();
+    }
+
+    private StringBuilder appendName(String name, String labels) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        return out;
+    }
+
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        return Double.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,325 @@
+package tracker.util;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import tracker.entity.Epic;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+import tracker.entity.Task;
+import tracker.entity.TaskType;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Потоковая сериализация задач, подзадач и эпиков без рефлексии.
+ * <p>
+ * Регистрируется для всей иерархии ({@code registerTypeHierarchyAdapter(Task.class, ...)}),
+ * поэтому смешанные списки (история, приоритеты) сериализуются с полем type, по которому
+ * клиент различает сущности. Формат полей совпадает с прежним: duration в миллисекундах,
+ * startTime в ISO-8601, пустые поля не выводятся.
+ * <p>
+ * При чтении тип берётся из ожидаемого типа, поля type или наличия epicId;
+ * неизвестные поля пропускаются, отсутствие обязательных полей приводит к {@link JsonSyntaxException}.
+ */
+public class TaskTypeAdapter extends TypeAdapter<Task> {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    @Override
+    public void write(JsonWriter out, Task task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("type").value(typeOf(task).name());
+        out.name("id").value(task.getId());
+        if (task.getName() != null) {
+            out.name("name").value(task.getName());
+        }
+        if (task.getDescription() != null) {
+            out.name("description").value(task.getDescription());
+        }
+        if (task.getStatus() != null) {
+            out.name("status").value(task.getStatus().name());
+        }
+        if (task.getDuration() != null) {
+            out.name("duration").value(task.getDuration().toMillis());
+        }
+        if (task.getStartTime() != null) {
+            out.name("startTime").value(formatTime(task.getStartTime()));
+        }
+        if (task instanceof Subtask) {
+            out.name("epicId").value(((Subtask) task).getEpicId());
+        } else if (task instanceof Epic) {
+            out.name("subtaskIds").beginArray();
+            for (int subtaskId : ((Epic) task).getSubtaskIds()) {
+                out.value(subtaskId);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Task read(JsonReader in) throws IOException {
+        return read(in, null);
+    }
+
+    /**
+     * Читает сущность ожидаемого типа.
+     *
+     * @param in           источник JSON
+     * @param expectedType ожидаемый тип или null, если тип определяется по полям
+     * @return прочитанная сущность или null для JSON null
+     * @throws JsonSyntaxException если тип не совпадает с ожидаемым или нет обязательных полей
+     */
+    public Task read(JsonReader in, TaskType expectedType) throws IOException {
+        return read(in, expectedType, null);
+    }
+
+    /**
+     * Читает сущность ожидаемого типа вместе с флагами запроса, которые передаются в теле рядом с полями
+     * сущности, но в неё не входят (например, autoPlace при создании задачи).
+     *
+     * @param flags флаги запроса: для каждого ключа, встреченного в теле, записывается его значение;
+     *              null - флаги не читаются
+     * @throws JsonSyntaxException если тип не совпадает с ожидаемым, нет обязательных полей
+     *                             или значение флага не логическое
+     */
+    public Task read(JsonReader in, TaskType expectedType, Map<String, Boolean> flags) throws IOException {
+        Fields fields = readFields(in, flags, null);
+        return fields != null ? fields.toEntity(expectedType) : null;
+    }
+
+    /**
+     * Читает поля объекта, не собирая сущность: тип сущности выбирает вызывающий код по значению
+     * поля-селектора (например, op операции пакета) и затем вызывает {@link Fields#toEntity(TaskType)}.
+     *
+     * @param flags         флаги запроса, как в {@link #read(JsonReader, TaskType, Map)}; null - не читаются
+     * @param selectorField имя строкового поля-селектора или null
+     * @return прочитанные поля или null для JSON null
+     * @throws JsonSyntaxException если значение поля имеет неверный формат
+     */
+    public Fields readFields(JsonReader in, Map<String, Boolean> flags, String selectorField) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Fields fields = new Fields();
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "type":
+                    fields.type = parseEnum(TaskType.class, in.nextString(), "Неверный тип задачи: ");
+                    break;
+                case "id":
+                    fields.id = in.nextInt();
+                    break;
+                case "name":
+                    fields.name = in.nextString();
+                    break;
+                case "description":
+                    fields.description = in.nextString();
+                    break;
+                case "status":
+                    fields.status = parseEnum(Status.class, in.nextString(), "Неверное значение статуса: ");
+                    break;
+                case "duration":
+                    fields.duration = Duration.ofMillis(in.nextLong());
+                    break;
+                case "startTime":
+                    fields.startTime = parseTime(in.nextString());
+                    break;
+                case "epicId":
+                    fields.epicId = in.nextInt();
+                    break;
+                default:
+                    if (field.equals(selectorField)) {
+                        if (in.peek() != JsonToken.STRING) {
+                            throw new JsonSyntaxException("Поле " + field + " должно быть строкой");
+                        }
+                        fields.selector = in.nextString();
+                    } else if (flags != null && flags.containsKey(field)) {
+                        flags.put(field, in.nextBoolean());
+                    } else {
+                        // subtaskIds эпика и прочие поля вычисляются менеджером
+                        in.skipValue();
+                    }
+            }
+        }
+        in.endObject();
+        return fields;
+    }
+
+    /**
+     * Поля сущности, прочитанные до выбора её типа.
+     */
+    public static final class Fields {
+        private TaskType type;
+        private Integer id;
+        private String name;
+        private String description;
+        private Status status;
+        private Duration duration;
+        private LocalDateTime startTime;
+        private Integer epicId;
+        private String selector;
+
+        private Fields() {
+        }
+
+        /**
+         * @return значение поля-селектора или null, если его не было
+         */
+        public String getSelector() {
+            return selector;
+        }
+
+        /**
+         * @return значение поля id
+         * @throws JsonSyntaxException если поля нет
+         */
+        public int requireId() {
+            require(id, "id");
+            return id;
+        }
+
+        /**
+         * Собирает сущность ожидаемого типа.
+         *
+         * @param expectedType ожидаемый тип или null, если тип определяется по полю type или наличию epicId
+         * @throws JsonSyntaxException если тип не совпадает с ожидаемым или нет обязательных полей
+         */
+        public Task toEntity(TaskType expectedType) {
+            TaskType entityType = type;
+            if (expectedType != null) {
+                if (type != null && type != expectedType) {
+                    throw new JsonSyntaxException("Ожидалась сущность типа " + expectedType + ", получена " + type);
+                }
+                entityType = expectedType;
+            } else if (entityType == null) {
+                entityType = epicId != null ? TaskType.SUBTASK : TaskType.TASK;
+            }
+
+            int entityId = id != null ? id : 0;
+            require(name, "name");
+            require(description, "description");
+            switch (entityType) {
+                case EPIC:
+                    return new Epic(entityId, name, description);
+                case SUBTASK:
+                    require(status, "status");
+                    require(epicId, "epicId");
+                    return new Subtask(entityId, name, description, status, epicId, duration, startTime);
+                default:
+                    require(status, "status");
+                    return new Task(entityId, name, description, status, duration, startTime);
+            }
+        }
+    }
+
+    private static TaskType typeOf(Task task) {
+        if (task instanceof Epic) return TaskType.EPIC;
+        if (task instanceof Subtask) return TaskType.SUBTASK;
+        return TaskType.TASK;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String error) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException(error + value);
+        }
+    }
+
+    /**
+     * Форматирует время как {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}; типичное время без долей секунды
+     * записывается напрямую в массив символов, остальное - через форматтер.
+     */
+    static String formatTime(LocalDateTime time) {
+        int year = time.getYear();
+        if (time.getNano() != 0 || year < 0 || year > 9999) {
+            return FORMATTER.format(time);
+        }
+        char[] chars = new char[19];
+        putDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        putDigits(chars, 5, time.getMonthValue(), 2);
+        chars[7] = '-';
+        putDigits(chars, 8, time.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        putDigits(chars, 11, time.getHour(), 2);
+        chars[13] = ':';
+        putDigits(chars, 14, time.getMinute(), 2);
+        chars[16] = ':';
+        putDigits(chars, 17, time.getSecond(), 2);
+        return new String(chars);
+    }
+
+    /**
+     * Разбирает время вида {@code yyyy-MM-ddTHH:mm[:ss]} без форматтера; остальные варианты ISO-8601
+     * (доли секунды, год вне 0000-9999) - через {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}.
+     */
+    static LocalDateTime parseTime(String value) {
+        try {
+            int length = value.length();
+            if ((length == 16 || length == 19) && value.charAt(4) == '-' && value.charAt(7) == '-'
+                    && value.charAt(10) == 'T' && value.charAt(13) == ':'
+                    && (length == 16 || value.charAt(16) == ':')) {
+                int year = digits(value, 0, 4);
+                int month = digits(value, 5, 2);
+                int day = digits(value, 8, 2);
+                int hour = digits(value, 11, 2);
+                int minute = digits(value, 14, 2);
+                int second = length == 19 ? digits(value, 17, 2) : 0;
+                if (year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0 && second >= 0) {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                }
+            }
+            return LocalDateTime.parse(value, FORMATTER);
+        } catch (DateTimeException e) {
+            throw new JsonSyntaxException("Неверный формат времени: " + value);
+        }
+    }
+
+    private static void putDigits(char[] chars, int from, int value, int count) {
+        for (int i = from + count - 1; i >= from; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * @return число из count цифр, начиная с from, или -1, если там не только цифры
+     */
+    private static int digits(String value, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static void require(Object value, String field) {
+        if (value == null) {
+            throw new JsonSyntaxException("Отсутствует обязательное поле: " + field);
+        }
+    }
+}
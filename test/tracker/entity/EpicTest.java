@@ -0,0 +1,87 @@
+package tracker.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpicTest {
+    private final LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private Subtask subtask(int id, Status status, int startOffsetMinutes, int durationMinutes) {
+        return new Subtask(id, "Subtask " + id, "Desc", status, 1,
+                Duration.ofMinutes(durationMinutes), start.plusMinutes(startOffsetMinutes));
+    }
+
+    @Test
+    void statusFollowsSubtaskStatuses() {
+        Epic epic = new Epic(1, "Epic", "Desc");
+        epic.addSubtask(subtask(2, Status.NEW, 0, 10));
+        epic.addSubtask(subtask(3, Status.DONE, 20, 10));
+        assertEquals(Status.IN_PROGRESS, epic.getStatus(), "Смешанные статусы дают IN_PROGRESS");
+
+        epic.addSubtask(subtask(2, Status.DONE, 0, 10));
+        assertEquals(Status.DONE, epic.getStatus(), "Все подзадачи DONE - эпик DONE");
+
+        epic.removeSubtask(2);
+        epic.removeSubtask(3);
+        assertEquals(Status.NEW, epic.getStatus(), "Эпик без подзадач должен иметь статус NEW");
+    }
+
+    @Test
+    void timeBoundsFollowEarliestStartAndLatestEnd() {
+        Epic epic = new Epic(1, "Epic", "Desc");
+        epic.addSubtask(subtask(2, Status.NEW, 60, 30));
+        epic.addSubtask(subtask(3, Status.NEW, 0, 15));
+        epic.addSubtask(subtask(4, Status.NEW, 120, 45));
+
+        assertEquals(start, epic.getStartTime(), "Начало эпика - самое раннее начало подзадачи");
+        assertEquals(start.plusMinutes(165), epic.getEndTime(), "Окончание эпика - самое позднее окончание подзадачи");
+        assertEquals(Duration.ofMinutes(90), epic.getDuration(), "Продолжительность - сумма продолжительностей");
+
+        epic.removeSubtask(3);
+        epic.removeSubtask(4);
+        assertEquals(start.plusMinutes(60), epic.getStartTime(), "Начало должно сдвинуться после удаления");
+        assertEquals(start.plusMinutes(90), epic.getEndTime(), "Окончание должно сдвинуться после удаления");
+
+        epic.clearSubtasks();
+        assertNull(epic.getStartTime(), "После очистки startTime должен быть null");
+        assertNull(epic.getEndTime(), "После очистки endTime должен быть null");
+        assertEquals(Duration.ZERO, epic.getDuration(), "После очистки duration должен быть 0");
+    }
+
+    @Test
+    void aggregatesMatchFullRecalculation() {
+        Epic epic = new Epic(1, "Epic", "Desc");
+        Map<Integer, Subtask> current = new HashMap<>();
+        Random random = new Random(7);
+        Status[] statuses = Status.values();
+
+        for (int step = 0; step < 5_000; step++) {
+            int id = 2 + random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                epic.removeSubtask(id);
+                current.remove(id);
+            } else {
+                Subtask subtask = subtask(id, statuses[random.nextInt(statuses.length)],
+                        random.nextInt(10_000), 1 + random.nextInt(120));
+                epic.addSubtask(subtask);
+                current.put(id, subtask);
+            }
+
+            LocalDateTime expectedStart = current.values().stream().map(Task::getStartTime)
+                    .min(Comparator.naturalOrder()).orElse(null);
+            LocalDateTime expectedEnd = current.values().stream().map(Task::getEndTime)
+                    .max(Comparator.naturalOrder()).orElse(null);
+            Duration expectedDuration = current.values().stream().map(Task::getDuration)
+                    .reduce(Duration.ZERO, Duration::plus);
+            assertEquals(expectedStart, epic.getStartTime(), "Начало эпика расходится с пересчётом");
+            assertEquals(expectedEnd, epic.getEndTime(), "Окончание эпика расходится с пересчётом");
+            assertEquals(expectedDuration, epic.getDuration(), "Продолжительность расходится с пересчётом");
+            assertEquals(current.keySet(), epic.getSubtaskIds(), "Набор подзадач расходится");
+        }
+    }
+}
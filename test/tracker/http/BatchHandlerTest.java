@@ -0,0 +1,121 @@
+package tracker.http;
+
+import com.google.gson.JsonArray;
+import org.junit.jupiter.api.*;
+import tracker.entity.Status;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchHandlerTest extends HttpTaskServerTestBase {
+
+    @BeforeEach
+    void clearManager() {
+        manager.deleteAllTasks();
+        manager.deleteAllEpics();
+        manager.deleteAllSubtasks();
+    }
+
+    @Test
+    @DisplayName("Пакет операций применяется целиком и возвращает созданные задачи")
+    void shouldApplyBatch() throws Exception {
+        int epicId = manager.createEpic("Эпик", "Описание").getId();
+        int removedId = manager.createTask("Удаляемая", "Описание", Status.NEW, null, null).getId();
+        String batch = String.format("""
+                [
+                    {"op": "createTask", "name": "Задача", "description": "Описание", "status": "NEW",
+                     "duration": 1800000, "startTime": "2024-01-01T09:00:00"},
+                    {"op": "createSubtask", "name": "Подзадача", "description": "Описание", "status": "DONE",
+                     "epicId": %d, "duration": 1800000, "startTime": "2024-01-01T10:00:00"},
+                    {"op": "delete", "id": %d}
+                ]""", epicId, removedId);
+
+        var response = sendPost("/batch", batch);
+
+        assertEquals(201, response.statusCode(), "Ожидался статус 201 для применённого пакета");
+        assertEquals(2, gson.fromJson(response.body(), JsonArray.class).size(), "В ответе должны быть созданные задачи");
+        assertNull(manager.peekTask(removedId), "Удаление из пакета должно примениться");
+        assertEquals(1, manager.getEpicSubtasks(epicId).size(), "Подзадача должна попасть в эпик");
+    }
+
+    @Test
+    @DisplayName("Пакет с пересечением по времени или несуществующим эпиком отклоняется целиком")
+    void shouldRejectWholeBatch() throws Exception {
+        String overlapping = """
+                [
+                    {"op": "createTask", "name": "Первая", "description": "Описание", "status": "NEW",
+                     "duration": 3600000, "startTime": "2024-01-01T09:00:00"},
+                    {"op": "createTask", "name": "Вторая", "description": "Описание", "status": "NEW",
+                     "duration": 3600000, "startTime": "2024-01-01T09:30:00"}
+                ]""";
+        assertEquals(406, sendPost("/batch", overlapping).statusCode(), "Пересечение внутри пакета даёт 406");
+
+        String missingEpic = """
+                [
+                    {"op": "createTask", "name": "Задача", "description": "Описание", "status": "NEW"},
+                    {"op": "createSubtask", "name": "Подзадача", "description": "Описание", "status": "NEW",
+                     "epicId": 999999}
+                ]""";
+        assertEquals(404, sendPost("/batch", missingEpic).statusCode(), "Несуществующий эпик даёт 404");
+        assertTrue(manager.getAllTasks().isEmpty(), "Задачи отклонённых пакетов не должны создаваться");
+
+        assertEquals(400, sendPost("/batch", "[{\"op\": \"rename\"}]").statusCode(),
+                "Неизвестная операция даёт 400");
+    }
+
+    @Test
+    @DisplayName("Некорректные поля операций дают 400 с понятным сообщением")
+    void shouldExplainInvalidOperations() throws Exception {
+        var missingName = sendPost("/batch", "[{\"op\": \"createTask\", \"description\": \"Описание\", \"status\": \"NEW\"}]");
+        assertEquals(400, missingName.statusCode(), "Отсутствующее поле даёт 400");
+        assertTrue(missingName.body().contains("name"), "Сообщение должно называть поле: " + missingName.body());
+
+        var wrongType = sendPost("/batch", "[{\"op\": \"delete\", \"id\": {\"value\": 1}}]");
+        assertEquals(400, wrongType.statusCode(), "Поле неверного типа даёт 400");
+        assertTrue(wrongType.body().contains("id"), "Сообщение должно называть поле: " + wrongType.body());
+
+        assertEquals(400, sendPost("/batch", "[1, 2]").statusCode(), "Операция не объект - 400");
+        assertEquals(400, sendPost("/batch", "[{\"op\": \"delete\", \"id\": 1.5}]").statusCode(),
+                "Дробный id - 400");
+    }
+
+    @Test
+    @DisplayName("Поля операций читаются так же, как тело POST /tasks, а op может стоять в любом месте объекта")
+    void shouldReadOperationsLikeEntities() throws Exception {
+        String batch = """
+                [
+                    {"name": "Задача", "description": "Описание", "status": "in_progress",
+                     "startTime": "2024-01-01T09:00", "duration": 1800000, "op": "createTask"}
+                ]""";
+        assertEquals(201, sendPost("/batch", batch).statusCode(), "Порядок полей не должен иметь значения");
+        assertEquals(Status.IN_PROGRESS, manager.getAllTasks().get(0).getStatus());
+
+        var wrongTime = sendPost("/batch", """
+                [{"op": "createTask", "name": "Задача", "description": "Описание", "status": "NEW",
+                  "startTime": "01.01.2024 09:00"}]""");
+        assertEquals(400, wrongTime.statusCode(), "Неверное время даёт 400");
+        assertTrue(wrongTime.body().contains("Неверный формат времени"),
+                "Сообщение должно совпадать с сообщением для сущностей: " + wrongTime.body());
+
+        assertEquals(400, sendPost("/batch", "[{\"id\": 1}]").statusCode(), "Операция без op - 400");
+        assertEquals(400, sendPost("/batch", "{\"op\": \"delete\", \"id\": 1}").statusCode(),
+                "Тело не массив - 400");
+    }
+
+    @Test
+    @DisplayName("Подзадачи, созданные в пакете, освобождают время при удалении их эпика в том же пакете")
+    void shouldReleaseStagedSubtasksOfDeletedEpic() throws Exception {
+        int epicId = manager.createEpic("Эпик", "Описание").getId();
+        String batch = String.format("""
+                [
+                    {"op": "createSubtask", "name": "Подзадача", "description": "Описание", "status": "NEW",
+                     "epicId": %d, "duration": 3600000, "startTime": "2024-01-01T09:00:00"},
+                    {"op": "delete", "id": %d},
+                    {"op": "createTask", "name": "Задача", "description": "Описание", "status": "NEW",
+                     "duration": 3600000, "startTime": "2024-01-01T09:30:00"}
+                ]""", epicId, epicId);
+
+        assertEquals(201, sendPost("/batch", batch).statusCode(), "Пакет применим, поэтому не должен отклоняться");
+        assertTrue(manager.getAllSubtasks().isEmpty(), "Подзадача удалена вместе с эпиком");
+        assertEquals(1, manager.getAllTasks().size(), "Задача на освободившееся время должна быть создана");
+    }
+}
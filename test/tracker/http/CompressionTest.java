@@ -0,0 +1,92 @@
+package tracker.http;
+
+import org.junit.jupiter.api.*;
+import tracker.entity.Status;
+import tracker.http.handler.ResponseCompression;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest extends HttpTaskServerTestBase {
+
+    @BeforeEach
+    void fillManager() {
+        manager.deleteAllTasks();
+        manager.deleteAllEpics();
+        manager.deleteAllSubtasks();
+        for (int i = 0; i < 5_000; i++) {
+            manager.createTask("Задача " + i, "Описание задачи " + i, Status.NEW, null, null);
+        }
+    }
+
+    @Test
+    @DisplayName("Большой список сжимается согласованной кодировкой и распаковывается в тот же JSON")
+    void shouldCompressLargeListWithNegotiatedEncoding() throws Exception {
+        HttpResponse<byte[]> plain = get("/tasks", null);
+        HttpResponse<byte[]> gzip = get("/tasks", "gzip, deflate");
+        HttpResponse<byte[]> deflate = get("/tasks", "gzip;q=0, deflate");
+
+        assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty(), "Без Accept-Encoding ответ не сжимается");
+        assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals("deflate", deflate.headers().firstValue("Content-Encoding").orElse(null),
+                "gzip с q=0 запрещён, должен выбираться deflate");
+        assertEquals("Accept-Encoding", gzip.headers().firstValue("Vary").orElse(null));
+
+        String json = new String(plain.body(), StandardCharsets.UTF_8);
+        assertEquals(json, inflate(new GZIPInputStream(new ByteArrayInputStream(gzip.body()))));
+        assertEquals(json, inflate(new InflaterInputStream(new ByteArrayInputStream(deflate.body()))));
+        assertTrue(gzip.body().length * 4 < plain.body().length,
+                "Сжатый ответ должен быть в разы меньше: " + gzip.body().length + " из " + plain.body().length);
+    }
+
+    @Test
+    @DisplayName("Ответ меньше порога отправляется без сжатия с точной длиной")
+    void shouldNotCompressSmallResponse() throws Exception {
+        int id = manager.getAllTasks().get(0).getId();
+
+        HttpResponse<byte[]> response = get("/tasks/" + id, "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty(), "Маленький ответ не сжимается");
+        assertEquals(String.valueOf(response.body().length), response.headers().firstValue("Content-Length").orElse(null));
+        assertEquals("Accept-Encoding", response.headers().firstValue("Vary").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Согласование кодировки учитывает q-значения и *")
+    void shouldNegotiateEncoding() {
+        ResponseCompression compression = new ResponseCompression(1024, 6);
+
+        assertNull(compression.negotiate(null));
+        assertNull(compression.negotiate("identity, br"));
+        assertNull(compression.negotiate("gzip;q=0, deflate;q=0"));
+        assertEquals("gzip", compression.negotiate("deflate, gzip"));
+        assertEquals("deflate", compression.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("gzip", compression.negotiate("*"));
+        assertEquals("deflate", compression.negotiate("*, gzip;q=0"));
+        assertNull(ResponseCompression.disabled().negotiate("gzip"));
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + path)).GET();
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String inflate(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
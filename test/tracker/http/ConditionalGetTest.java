@@ -0,0 +1,98 @@
+package tracker.http;
+
+import org.junit.jupiter.api.*;
+import tracker.entity.Epic;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+import tracker.service.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetTest extends HttpTaskServerTestBase {
+
+    @BeforeEach
+    void clearManager() {
+        manager.deleteAllTasks();
+        manager.deleteAllEpics();
+        manager.deleteAllSubtasks();
+    }
+
+    @Test
+    @DisplayName("Список без изменений отдаётся как 304, после изменения - заново с новым ETag")
+    void shouldAnswerNotModifiedUntilCollectionChanges() throws Exception {
+        manager.createTask("Задача", "Описание", Status.NEW, null, null);
+        HttpResponse<String> first = get("/tasks", null);
+        String etag = first.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag, "Ответ со списком должен содержать ETag");
+        assertTrue(etag.startsWith("W/\""), "ETag должен быть слабым");
+
+        HttpResponse<String> cached = get("/tasks", etag);
+        assertEquals(304, cached.statusCode(), "Без изменений ожидался 304");
+        assertTrue(cached.body().isEmpty(), "Ответ 304 не содержит тела");
+        assertEquals(etag, cached.headers().firstValue("ETag").orElse(null));
+
+        manager.createEpic("Эпик", "Описание");
+        assertEquals(304, get("/tasks", etag).statusCode(), "Изменение эпиков не меняет версию задач");
+
+        manager.createTask("Вторая", "Описание", Status.NEW, null, null);
+        HttpResponse<String> changed = get("/tasks", etag);
+        assertEquals(200, changed.statusCode(), "После изменения ожидался полный ответ");
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Версия эпика меняется при изменении его подзадач")
+    void shouldChangeEpicVersionWithSubtasks() throws Exception {
+        Epic epic = manager.createEpic("Эпик", "Описание");
+        long created = manager.getVersion(epic.getId());
+        Subtask subtask = manager.createSubtask("Подзадача", "Описание", Status.NEW, epic.getId(), null, null);
+        long withSubtask = manager.getVersion(epic.getId());
+        assertTrue(withSubtask > created, "Добавление подзадачи меняет версию эпика");
+
+        String etag = get("/epics/" + epic.getId(), null).headers().firstValue("ETag").orElse(null);
+        assertEquals(304, get("/epics/" + epic.getId(), etag).statusCode());
+        long prioritized = manager.getVersion(TaskManager.DataSet.PRIORITIZED);
+
+        manager.updateSubtask(new Subtask(subtask.getId(), "Подзадача", "Описание", Status.DONE, epic.getId(),
+                null, null));
+        assertEquals(200, get("/epics/" + epic.getId(), etag).statusCode(), "Статус эпика изменился");
+        assertEquals(prioritized, manager.getVersion(TaskManager.DataSet.PRIORITIZED),
+                "Подзадача без времени не меняет расписание");
+        assertEquals(-1, manager.getVersion(100_000), "Для отсутствующей сущности версия -1");
+    }
+
+    @Test
+    @DisplayName("История с просмотренным эпиком отдаётся заново после изменения эпика или его подзадач")
+    void shouldRevalidateHistoryWhenViewedEpicChanges() throws Exception {
+        Epic epic = manager.createEpic("e", "Описание");
+        assertEquals(200, get("/epics/" + epic.getId(), null).statusCode());
+        HttpResponse<String> history = get("/history", null);
+        String etag = history.headers().firstValue("ETag").orElse(null);
+        assertTrue(history.body().contains("\"NEW\""), "Эпик без подзадач в статусе NEW: " + history.body());
+        assertEquals(304, get("/history", etag).statusCode(), "Без изменений ожидался 304");
+
+        manager.createSubtask("Подзадача", "Описание", Status.DONE, epic.getId(), null, null);
+        HttpResponse<String> withSubtask = get("/history", etag);
+        assertEquals(200, withSubtask.statusCode(), "Статус эпика в истории изменился");
+        assertTrue(withSubtask.body().contains("\"DONE\""), "История должна показать новый статус эпика");
+
+        etag = withSubtask.headers().firstValue("ETag").orElse(null);
+        manager.updateEpic(new Epic(epic.getId(), "renamed", "Описание"));
+        HttpResponse<String> renamed = get("/history", etag);
+        assertEquals(200, renamed.statusCode(), "Название эпика в истории изменилось");
+        assertTrue(renamed.body().contains("renamed"), "История должна показать новое название эпика");
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + path)).GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
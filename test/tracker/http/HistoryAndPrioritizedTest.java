@@ -1,6 +1,15 @@
 package tracker.http;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import org.junit.jupiter.api.*;
+import tracker.entity.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,6 +52,26 @@ class HistoryAndPrioritizedTest extends HttpTaskServerTestBase {
         assertNotNull(response.body(), "Тело ответа не должно быть пустым");
     }
 
+    @Test
+    @DisplayName("Обновление задачи и запрос подзадач эпика не добавляют записи в историю")
+    void shouldNotRecordInternalLookupsInHistory() throws Exception {
+        var created = sendPost("/tasks", createTaskJson("Задача", "Описание", "NEW"));
+        int taskId = gson.fromJson(created.body(), JsonObject.class).get("id").getAsInt();
+        int epicId = manager.createEpic("Эпик", "Описание").getId();
+
+        String updateJson = String.format("""
+                {
+                    "id": %d,
+                    "name": "Задача",
+                    "description": "Новое описание",
+                    "status": "IN_PROGRESS"
+                }""", taskId);
+        assertEquals(201, sendPost("/tasks", updateJson).statusCode(), "Задача должна обновиться");
+        assertEquals(200, sendGet("/epics/" + epicId + "/subtasks").statusCode(), "Ожидался список подзадач");
+
+        assertTrue(manager.getHistory().isEmpty(), "Внутренние проверки не должны попадать в историю");
+    }
+
     @Test
     @DisplayName("Получение списка приоритетных задач возвращает статус 200")
     void shouldReturn200WhenGetPrioritized() throws Exception {
@@ -76,4 +105,41 @@ class HistoryAndPrioritizedTest extends HttpTaskServerTestBase {
         assertEquals(200, response.statusCode(), "Ожидался статус 200 для пустого списка приоритетов");
         assertNotNull(response.body(), "Тело ответа не должно быть пустым");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Постраничное получение приоритетных задач в интервале времени")
+    void shouldPagePrioritizedTasksWithinRange() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        manager.createTask("До интервала", "Описание", Status.NEW, Duration.ofMinutes(10), start.minusDays(1));
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(manager.createTask("В интервале " + i, "Описание", Status.NEW,
+                    Duration.ofMinutes(10), start.plusHours(i)).getId());
+        }
+        // Задача без продолжительности с тем же началом не должна потеряться в упорядоченном наборе
+        expected.add(3, manager.createTask("Совпадает по началу", "Описание", Status.NEW,
+                null, start.plusHours(2)).getId());
+        manager.createTask("После интервала", "Описание", Status.NEW, Duration.ofMinutes(10), start.plusDays(1));
+
+        List<Integer> received = new ArrayList<>();
+        String query = "/prioritized?from=2024-01-01T09:00&to=2024-01-02T09:00&limit=4";
+        var response = sendGet(query);
+        while (true) {
+            assertEquals(200, response.statusCode(), "Ожидался статус 200 для страницы");
+            for (JsonElement element : gson.fromJson(response.body(), JsonArray.class)) {
+                received.add(element.getAsJsonObject().get("id").getAsInt());
+            }
+            var cursor = response.headers().firstValue("X-Next-Cursor");
+            if (cursor.isEmpty()) {
+                break;
+            }
+            response = sendGet("/prioritized?to=2024-01-02T09:00&limit=4&cursor=" + cursor.get());
+        }
+
+        assertEquals(expected, received, "Страницы должны содержать задачи интервала по порядку без повторов");
+        assertEquals(8, gson.fromJson(sendGet("/prioritized").body(), JsonArray.class).size(),
+                "Без параметров возвращается весь список");
+        assertEquals(400, sendGet("/prioritized?limit=0").statusCode(), "Неверный limit должен давать 400");
+        assertEquals(400, sendGet("/prioritized?cursor=broken").statusCode(), "Повреждённый курсор должен давать 400");
+    }
+}
@@ -0,0 +1,82 @@
+package tracker.http;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.Status;
+import tracker.service.Managers;
+import tracker.service.TaskManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerExecutorTest {
+    private static final int CLIENTS = 50;
+
+    @Test
+    @DisplayName("Режим VIRTUAL использует пул потоков вместо потока-диспетчера")
+    void shouldUseExecutorInVirtualMode() throws Exception {
+        HttpTaskServer server = new HttpTaskServer(Managers.getConcurrent(), 0, 0,
+                HttpTaskServer.ExecutorMode.VIRTUAL);
+        try {
+            assertNotEquals(HttpTaskServer.ExecutorMode.DISPATCHER, server.getExecutorMode(),
+                    "Запросы не должны обрабатываться потоком-диспетчером");
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Многопоточные режимы не принимают непотокобезопасный менеджер")
+    void shouldRejectNonConcurrentManagerInMultithreadedModes() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new HttpTaskServer(Managers.getDefault(), 0, 0,
+                HttpTaskServer.ExecutorMode.PLATFORM), "PLATFORM требует потокобезопасного менеджера");
+        assertThrows(IllegalArgumentException.class, () -> new HttpTaskServer(Managers.getDefault(), 0, 0,
+                HttpTaskServer.ExecutorMode.VIRTUAL), "VIRTUAL требует потокобезопасного менеджера");
+
+        HttpTaskServer server = new HttpTaskServer(Managers.getDefault(), 0, 0, HttpTaskServer.ExecutorMode.DISPATCHER);
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Все одновременные клиенты получают ответ в режимах DISPATCHER, VIRTUAL и PLATFORM")
+    void shouldServeConcurrentClients() throws Exception {
+        for (HttpTaskServer.ExecutorMode mode : HttpTaskServer.ExecutorMode.values()) {
+            assertEquals(CLIENTS, serveConcurrently(mode), "Режим " + mode + ": каждый клиент должен получить ответ");
+        }
+    }
+
+    private int serveConcurrently(HttpTaskServer.ExecutorMode mode) throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        for (int i = 0; i < 20; i++) {
+            manager.createTask("Task " + i, "Description", Status.NEW, null, null);
+        }
+        HttpTaskServer server = new HttpTaskServer(manager, 0, CLIENTS, mode);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                    .GET()
+                    .build();
+
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            int served = 0;
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode(), "Каждый клиент должен получить ответ 200");
+                served++;
+            }
+            return served;
+        } finally {
+            server.stop();
+        }
+    }
+}
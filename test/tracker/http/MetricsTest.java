@@ -0,0 +1,33 @@
+package tracker.http;
+
+import org.junit.jupiter.api.*;
+
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest extends HttpTaskServerTestBase {
+
+    @Test
+    @DisplayName("/metrics отдаёт счётчики запросов, гистограммы задержек и время операций менеджера")
+    void shouldExposePrometheusMetrics() throws Exception {
+        sendGet("/tasks");
+        sendGet("/tasks/999999");
+        sendPost("/tasks", createTaskJson("Задача", "Описание", "NEW"));
+
+        HttpResponse<String> response = sendGet("/metrics");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+        String metrics = response.body();
+        assertTrue(metrics.contains("# TYPE tracker_http_requests_total counter"));
+        assertTrue(metrics.contains("tracker_http_requests_total{route=\"/tasks\",method=\"GET\",status=\"404\"}"),
+                "Должен учитываться код ответа");
+        assertTrue(metrics.contains("tracker_http_requests_total{route=\"/tasks\",method=\"POST\",status=\"201\"}"));
+        assertTrue(metrics.contains(
+                "tracker_http_request_duration_seconds_bucket{route=\"/tasks\",method=\"GET\",le=\"+Inf\"}"));
+        assertTrue(metrics.contains("tracker_manager_operation_duration_seconds_count{operation=\"createTask\"} "),
+                "Должно учитываться время операций менеджера");
+        assertTrue(metrics.contains("tracker_response_cache_hits_total"));
+    }
+}
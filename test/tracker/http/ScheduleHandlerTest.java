@@ -0,0 +1,86 @@
+package tracker.http;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.*;
+import tracker.entity.Status;
+import tracker.entity.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleHandlerTest extends HttpTaskServerTestBase {
+    private final LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @BeforeEach
+    void clearManager() {
+        manager.deleteAllTasks();
+        manager.deleteAllEpics();
+        manager.deleteAllSubtasks();
+    }
+
+    @Test
+    @DisplayName("Поиск свободного интервала возвращает первое подходящее окно")
+    void shouldReturnNextFreeSlot() throws Exception {
+        manager.createTask("Утро", "Описание", Status.NEW, Duration.ofMinutes(60), start);
+        manager.createTask("После паузы", "Описание", Status.NEW, Duration.ofMinutes(60), start.plusMinutes(90));
+
+        var response = sendGet("/schedule/next-free?duration=45&after=2024-01-01T09:00");
+        assertEquals(200, response.statusCode(), "Ожидался статус 200 для найденного интервала");
+        JsonObject slot = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals("2024-01-01T11:30:00", slot.get("startTime").getAsString(),
+                "Получасовая пауза не вмещает 45 минут");
+        assertEquals("2024-01-01T12:15:00", slot.get("endTime").getAsString());
+
+        assertEquals("2024-01-01T10:00:00", gson.fromJson(
+                sendGet("/schedule/next-free?duration=PT30M&after=2024-01-01T09:00").body(), JsonObject.class)
+                .get("startTime").getAsString(), "Пауза ровно нужной длины должна подойти");
+        assertEquals(404, sendGet("/schedule/next-free?duration=45&after=2024-01-01T09:00"
+                + "&before=2024-01-01T12:00").statusCode(), "До before свободного окна нет");
+        assertEquals(400, sendGet("/schedule/next-free?duration=abc").statusCode(), "Неверная длительность даёт 400");
+    }
+
+    @Test
+    @DisplayName("Задача с autoPlace и без времени начала ставится в свободный интервал")
+    void shouldAutoPlaceTaskWithoutStartTime() throws Exception {
+        String taskJson = """
+                {
+                    "name": "Автоматическая",
+                    "description": "Описание",
+                    "status": "NEW",
+                    "duration": 1800000,
+                    "autoPlace": true
+                }""";
+        String plainTaskJson = """
+                {
+                    "name": "Автоматическая",
+                    "description": "Описание",
+                    "status": "NEW",
+                    "duration": 1800000
+                }""";
+        var first = sendPost("/tasks", taskJson);
+        // Флаг можно передать и параметром запроса
+        var second = sendPost("/tasks?autoPlace=true", plainTaskJson);
+        assertEquals(201, first.statusCode(), "Задача должна быть создана");
+        assertEquals(201, second.statusCode(), "Задача должна быть создана");
+
+        Task firstTask = manager.peekTask(gson.fromJson(first.body(), JsonObject.class).get("id").getAsInt());
+        Task secondTask = manager.peekTask(gson.fromJson(second.body(), JsonObject.class).get("id").getAsInt());
+        assertNotNull(firstTask.getStartTime(), "Задаче должно быть назначено время начала");
+        assertFalse(secondTask.getStartTime().isBefore(firstTask.getEndTime()),
+                "Вторая задача не должна пересекаться с первой");
+
+        String withoutDuration = """
+                {
+                    "name": "Без продолжительности",
+                    "description": "Описание",
+                    "status": "NEW",
+                    "autoPlace": true
+                }""";
+        assertEquals(400, sendPost("/tasks", withoutDuration).statusCode(),
+                "Без продолжительности разместить задачу нельзя");
+        assertEquals(400, sendPost("/tasks", taskJson.replace("true", "\"да\"")).statusCode(),
+                "Нелогическое значение autoPlace даёт 400");
+    }
+}
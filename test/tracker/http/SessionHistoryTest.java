@@ -0,0 +1,99 @@
+package tracker.http;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.Status;
+import tracker.entity.Task;
+import tracker.http.handler.SessionFilter;
+import tracker.service.Managers;
+import tracker.service.SessionHistoryManager;
+import tracker.service.TaskManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionHistoryTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private int port;
+
+    private HttpResponse<String> get(String path, String sessionId) throws Exception {
+        return get(path, sessionId, null);
+    }
+
+    private HttpResponse<String> get(String path, String sessionId, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (sessionId != null) {
+            request.header(SessionFilter.SESSION_HEADER, sessionId);
+        }
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("История просмотров ведётся отдельно для каждой сессии клиента")
+    void shouldKeepHistoryPerSession() throws Exception {
+        SessionHistoryManager sessions = Managers.getSessionHistory(10, Duration.ofMinutes(1), 100);
+        TaskManager manager = Managers.getConcurrent(sessions);
+        Task first = manager.createTask("Первая", "Описание", Status.NEW, null, null);
+        Task second = manager.createTask("Вторая", "Описание", Status.NEW, null, null);
+
+        HttpTaskServer server = new HttpTaskServer(manager, 0, 0, HttpTaskServer.ExecutorMode.PLATFORM, sessions);
+        server.start();
+        port = server.getPort();
+        try {
+            assertEquals(200, get("/tasks/" + first.getId(), "alice").statusCode(), "Задача должна быть найдена");
+            assertEquals(200, get("/tasks/" + second.getId(), "bob").statusCode(), "Задача должна быть найдена");
+
+            String aliceHistory = get("/history", "alice").body();
+            String bobHistory = get("/history", "bob").body();
+            String anonymousHistory = get("/history", null).body();
+
+            assertTrue(aliceHistory.contains("Первая") && !aliceHistory.contains("Вторая"),
+                    "В истории alice должен быть только её просмотр");
+            assertTrue(bobHistory.contains("Вторая") && !bobHistory.contains("Первая"),
+                    "В истории bob должен быть только его просмотр");
+            assertEquals("[]", anonymousHistory, "Запрос без сессии не должен видеть чужие просмотры");
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("ETag истории зависит от сессии и меняется, если сессия была удалена")
+    void shouldValidateHistoryPerSession() throws Exception {
+        SessionHistoryManager sessions = Managers.getSessionHistory(10, Duration.ofMinutes(1), 1);
+        TaskManager manager = Managers.getConcurrent(sessions);
+        Task task = manager.createTask("Задача", "Описание", Status.NEW, null, null);
+
+        HttpTaskServer server = new HttpTaskServer(manager, 0, 0, HttpTaskServer.ExecutorMode.PLATFORM, sessions);
+        server.start();
+        port = server.getPort();
+        try {
+            get("/tasks/" + task.getId(), "alice");
+            HttpResponse<String> alice = get("/history", "alice");
+            String aliceEtag = alice.headers().firstValue("ETag").orElseThrow();
+            assertTrue(alice.headers().firstValue("Vary").orElse("").contains(SessionFilter.SESSION_HEADER),
+                    "Ответ должен зависеть от заголовка сессии");
+            assertEquals(304, get("/history", "alice", aliceEtag).statusCode(),
+                    "Неизменённая история сессии должна давать 304");
+
+            HttpResponse<String> bob = get("/history", "bob", aliceEtag);
+            assertEquals(200, bob.statusCode(), "ETag другой сессии не должен подходить");
+            assertEquals("[]", bob.body(), "У новой сессии история пуста");
+
+            // Лимит в одну сессию: запрос bob удалил сессию alice вместе с её историей
+            HttpResponse<String> aliceAgain = get("/history", "alice", aliceEtag);
+            assertEquals(200, aliceAgain.statusCode(), "После удаления сессии старый ETag не должен подходить");
+            assertEquals("[]", aliceAgain.body(), "История удалённой сессии должна быть пустой");
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package tracker.http.handler;
+
+import org.junit.jupiter.api.*;
+import tracker.entity.Status;
+import tracker.entity.Task;
+import tracker.http.HttpTaskServerTestBase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest extends HttpTaskServerTestBase {
+
+    @BeforeEach
+    void clearManager() {
+        manager.deleteAllTasks();
+        manager.deleteAllEpics();
+        manager.deleteAllSubtasks();
+    }
+
+    @Test
+    @DisplayName("Повторный запрос отдаётся из кеша, изменение данных делает ответ устаревшим")
+    void shouldServeFromCacheUntilDataChanges() throws Exception {
+        ResponseCache cache = server.getResponseCache();
+        assertNotNull(cache, "Кеш ответов включён по умолчанию");
+        int id = manager.createTask("Задача", "Описание", Status.NEW, null, null).getId();
+
+        String first = get("/tasks", null).body();
+        long hits = cache.getHits();
+        long saved = cache.getBytesSaved();
+        assertEquals(first, get("/tasks", null).body());
+        assertEquals(hits + 1, cache.getHits(), "Второй запрос должен попасть в кеш");
+        assertEquals(saved + first.getBytes(StandardCharsets.UTF_8).length, cache.getBytesSaved());
+
+        manager.createEpic("Эпик", "Описание");
+        get("/tasks", null);
+        assertEquals(hits + 2, cache.getHits(), "Изменение эпиков не затрагивает кеш списка задач");
+
+        manager.updateTask(new Task(id, "Новое имя", "Описание", Status.DONE, null, null));
+        long misses = cache.getMisses();
+        String updated = get("/tasks", null).body();
+        assertTrue(updated.contains("Новое имя"), "После изменения должен вернуться новый ответ");
+        assertEquals(misses + 1, cache.getMisses());
+
+        String stats = get("/cache/stats", null).body();
+        assertTrue(stats.contains("\"hitRatio\""), "Статистика кеша должна содержать долю попаданий");
+    }
+
+    @Test
+    @DisplayName("Сжатый ответ кешируется отдельно и отдаётся с Content-Encoding")
+    void shouldCacheCompressedBodySeparately() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            manager.createTask("Задача " + i, "Описание задачи " + i, Status.NEW, null, null);
+        }
+        String plain = get("/tasks", null).body();
+        HttpResponse<byte[]> compressed = getBytes("/tasks", "gzip");
+        long hits = server.getResponseCache().getHits();
+        HttpResponse<byte[]> cached = getBytes("/tasks", "gzip");
+
+        assertEquals(hits + 1, server.getResponseCache().getHits());
+        assertEquals("gzip", cached.headers().firstValue("Content-Encoding").orElse(null));
+        assertArrayEquals(compressed.body(), cached.body(), "Из кеша должно отдаваться то же сжатое тело");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(cached.body()))) {
+            assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("При превышении размера вытесняются давно не использованные записи, устаревшие не выдаются")
+    void shouldEvictLeastRecentlyUsedAndRejectStaleVersions() {
+        ResponseCache cache = new ResponseCache(400);
+        cache.put("a", 1, null, new byte[100]);
+        cache.put("b", 1, null, new byte[100]);
+        cache.put("c", 1, null, new byte[100]);
+        assertNotNull(cache.get("a", 1));
+        cache.put("d", 1, null, new byte[100]);
+        cache.put("e", 1, null, new byte[100]);
+
+        assertNull(cache.get("b", 1), "Самая давняя запись должна быть вытеснена");
+        assertNotNull(cache.get("a", 1), "Недавно использованная запись остаётся");
+        assertTrue(cache.getTotalBytes() <= 400);
+        assertNull(cache.get("a", 2), "Запись другой версии не выдаётся");
+        assertEquals(3, cache.getEntryCount());
+
+        cache.put("f", 1, null, new byte[101]);
+        assertNull(cache.get("f", 1), "Тело больше четверти лимита не кешируется");
+    }
+
+    private HttpResponse<String> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        return client.send(request(path, acceptEncoding), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<byte[]> getBytes(String path, String acceptEncoding) throws IOException, InterruptedException {
+        return client.send(request(path, acceptEncoding), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static HttpRequest request(String path, String acceptEncoding) {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + path)).GET();
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return request.build();
+    }
+}
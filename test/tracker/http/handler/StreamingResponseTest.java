@@ -0,0 +1,179 @@
+package tracker.http.handler;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.Status;
+import tracker.service.InMemoryTaskManager;
+import tracker.service.TaskManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingResponseTest {
+    private static final int TASK_COUNT = 1_000_000;
+
+    @Test
+    @DisplayName("Список из миллиона задач пишется в ответ блоками, без сборки всего JSON в памяти")
+    void shouldStreamLargeTaskListInBufferSizedChunks() throws Exception {
+        TaskManager manager = new InMemoryTaskManager();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            manager.createTask("Задача " + i, "Описание", Status.NEW, null, null);
+        }
+        RecordingExchange exchange = new RecordingExchange("GET", "/tasks");
+
+        new TaskHandler(manager).handle(exchange);
+
+        assertEquals(200, exchange.responseCode);
+        assertEquals(0, exchange.responseLength, "Длина заранее неизвестна - ответ должен идти блоками");
+        assertTrue(exchange.closed, "Обмен должен быть закрыт");
+        CountingOutputStream body = exchange.body;
+        assertEquals('[', body.first, "Ответ должен начинаться с массива");
+        assertEquals(']', body.last, "Ответ должен заканчиваться концом массива");
+        assertEquals(TASK_COUNT, body.objects, "В ответе должны быть все задачи");
+        assertTrue(body.total > 50L * TASK_COUNT, "Ответ должен содержать полные задачи");
+        // Ответ целиком раньше записывался одним массивом байт; теперь запись идёт кусками размера буфера
+        assertTrue(body.maxWrite <= 4 * BaseHttpHandler.RESPONSE_BUFFER_SIZE,
+                "Слишком большой блок записи: " + body.maxWrite);
+    }
+
+    /**
+     * Считает записанные байты, не сохраняя их.
+     */
+    private static class CountingOutputStream extends OutputStream {
+        long total;
+        long objects;
+        int maxWrite;
+        int first = -1;
+        int last = -1;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (length == 0) return;
+            if (first < 0) {
+                first = bytes[offset];
+            }
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '{') {
+                    objects++;
+                }
+            }
+            last = bytes[offset + length - 1];
+            total += length;
+            maxWrite = Math.max(maxWrite, length);
+        }
+    }
+
+    private static class RecordingExchange extends HttpExchange {
+        private final String method;
+        private final URI uri;
+        private final Headers requestHeaders = new Headers();
+        private final Headers responseHeaders = new Headers();
+        final CountingOutputStream body = new CountingOutputStream();
+        int responseCode = -1;
+        long responseLength = -2;
+        boolean closed;
+
+        RecordingExchange(String method, String path) {
+            this.method = method;
+            this.uri = URI.create(path);
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return uri;
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return method;
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return body;
+        }
+
+        @Override
+        public void sendResponseHeaders(int code, long length) {
+            responseCode = code;
+            responseLength = length;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return responseCode;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public String getProtocol() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+        }
+
+        @Override
+        public void setStreams(InputStream in, OutputStream out) {
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package tracker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.Status;
+import tracker.entity.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+
+    private static Task task(int id) {
+        return new Task(id, "Task" + id, "Desc", Status.NEW, null, null);
+    }
+
+    @Test
+    @DisplayName("В одном потоке поведение совпадает с обычной историей")
+    void shouldBehaveLikeDelegateInSingleThread() {
+        HistoryManager history = Managers.getConcurrentHistory();
+        for (int id = 1; id <= 300; id++) {
+            history.add(task(id));
+        }
+        history.add(task(1));
+        history.remove(2);
+
+        List<Task> tasks = history.getHistory();
+        assertEquals(299, tasks.size(), "Повторный просмотр не должен создавать дубликат");
+        assertEquals(3, tasks.get(0).getId(), "Удалённая задача не должна оставаться в истории");
+        assertEquals(1, tasks.get(tasks.size() - 1).getId(), "Повторный просмотр должен переместить задачу в конец");
+    }
+
+    @Test
+    @DisplayName("Одновременные просмотры из многих потоков не теряются и сохраняют порядок внутри потока")
+    void shouldKeepAllViewsFromConcurrentThreads() throws Exception {
+        int threads = 16;
+        int viewsPerThread = 5_000;
+        HistoryManager history = new ConcurrentHistoryManager(Managers.getDefaultHistory());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * viewsPerThread;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 1; i <= viewsPerThread; i++) {
+                    history.add(task(base + i));
+                    if (i % 1_000 == 0) {
+                        history.getHistory();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        List<Task> tasks = history.getHistory();
+        assertEquals(threads * viewsPerThread, tasks.size(), "Часть просмотров потеряна");
+        Map<Integer, Integer> lastSeenByThread = new HashMap<>();
+        for (Task task : tasks) {
+            int thread = (task.getId() - 1) / viewsPerThread;
+            int previous = lastSeenByThread.getOrDefault(thread, 0);
+            assertTrue(task.getId() > previous, "Нарушен порядок просмотров одного потока");
+            lastSeenByThread.put(thread, task.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Просмотры, выполненные по очереди разными потоками, сразу видны в истории в порядке вызовов")
+    void shouldOrderSequentialViewsFromDifferentThreads() throws Exception {
+        int threads = 4;
+        int views = 8_000;
+        HistoryManager history = new ConcurrentHistoryManager(Managers.getDefaultHistory());
+        AtomicInteger turn = new AtomicInteger(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                for (int id = offset + 1; id <= views && !failed.get(); id += threads) {
+                    while (turn.get() != id && !failed.get()) {
+                        Thread.yield();
+                    }
+                    history.add(task(id));
+                    if (id % 64 == 0) {
+                        // Другие потоки ждут своей очереди, поэтому этот просмотр должен быть последним
+                        List<Task> snapshot = history.getHistory();
+                        if (snapshot.get(snapshot.size() - 1).getId() != id) {
+                            failed.set(true);
+                        }
+                    }
+                    turn.incrementAndGet();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        // Параллельные слияния из другого потока не должны переставлять просмотры
+        Thread reader = new Thread(() -> {
+            while (turn.get() <= views && !failed.get()) {
+                history.getHistory();
+            }
+        });
+        reader.start();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        reader.join();
+
+        assertFalse(failed.get(), "Завершённый просмотр должен быть виден в истории");
+        List<Task> tasks = history.getHistory();
+        assertEquals(views, tasks.size(), "Часть просмотров потеряна");
+        for (int i = 0; i < views; i++) {
+            assertEquals(i + 1, tasks.get(i).getId(), "Порядок истории должен совпадать с порядком вызовов");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package tracker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.Epic;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+import tracker.entity.Task;
+import tracker.exceptions.ManagerSaveException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+    private final LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("Параллельные изменения сохраняют уникальность id, отсутствие пересечений и состояние эпиков")
+    void shouldKeepInvariantsUnderContention() throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            epicIds.add(manager.createEpic("Epic " + i, "Description").getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Integer> createdIds = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    LocalDateTime startTime = base.plusMinutes(random.nextInt(50_000));
+                    try {
+                        if (random.nextBoolean()) {
+                            int epicId = epicIds.get(random.nextInt(epicIds.size()));
+                            Status status = Status.values()[random.nextInt(Status.values().length)];
+                            Subtask subtask = manager.createSubtask("Subtask", "Description", status,
+                                    epicId, Duration.ofMinutes(30), startTime);
+                            createdIds.add(subtask.getId());
+                            if (random.nextInt(3) == 0) {
+                                manager.updateSubtask(new Subtask(subtask.getId(), "Updated", "Description",
+                                        Status.DONE, epicId, subtask.getDuration(), subtask.getStartTime()));
+                            }
+                        } else {
+                            Task task = manager.createTask("Task", "Description", Status.NEW,
+                                    Duration.ofMinutes(30), startTime);
+                            createdIds.add(task.getId());
+                        }
+                        if (random.nextInt(5) == 0 && !createdIds.isEmpty()) {
+                            Integer victim = createdIds.peek();
+                            if (victim != null) {
+                                manager.deleteTask(victim);
+                                manager.deleteSubtask(victim);
+                            }
+                        }
+                    } catch (ManagerSaveException conflict) {
+                        // Пересечение по времени - ожидаемый исход при конкуренции за слот
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Параллельные читатели
+        for (int reader = 0; reader < 2; reader++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    manager.getAllTasks();
+                    manager.getAllEpics().forEach(epic -> assertNotNull(epic.getStatus()));
+                    manager.getPrioritizedTasks();
+                    manager.getEpic(epicIds.get(i % epicIds.size()));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(createdIds.size(), new HashSet<>(createdIds).size(), "Идентификаторы должны быть уникальны");
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(manager.getAllTasks().size() + manager.getAllSubtasks().size(), prioritized.size(),
+                "Все задачи со временем должны быть в списке приоритетов");
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).getEndTime()),
+                    "Задачи не должны пересекаться по времени");
+        }
+
+        for (int epicId : epicIds) {
+            Epic epic = manager.getEpic(epicId);
+            List<Subtask> epicSubtasks = manager.getEpicSubtasks(epicId);
+            Set<Integer> linked = new HashSet<>(epic.getSubtaskIds());
+            assertEquals(epicSubtasks.size(), linked.size(), "Эпик должен ссылаться только на существующие подзадачи");
+            assertEquals(expectedStatus(epicSubtasks), epic.getStatus(), "Статус эпика должен соответствовать подзадачам");
+            assertEquals(epicSubtasks.stream().map(Subtask::getStartTime).min(LocalDateTime::compareTo).orElse(null),
+                    epic.getStartTime(), "Начало эпика должно совпадать с самой ранней подзадачей");
+        }
+    }
+
+    private Status expectedStatus(List<Subtask> subtasks) {
+        if (subtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.NEW)) return Status.NEW;
+        if (subtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.DONE)) return Status.DONE;
+        return Status.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,115 @@
+package tracker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.Epic;
+import tracker.entity.Status;
+import tracker.entity.Subtask;
+import tracker.entity.Task;
+import tracker.exceptions.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvSnapshotReaderTest {
+
+    private static List<Task> read(String content) throws IOException {
+        File file = File.createTempFile("snapshot", ".csv");
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        List<Task> loaded = new ArrayList<>();
+        CsvSnapshotReader.read(file, loaded::add);
+        return loaded;
+    }
+
+    @Test
+    @DisplayName("Поля строки разбираются без потерь, включая время с секундами и пустые значения")
+    void shouldParseAllFields() throws IOException {
+        List<Task> loaded = read("id,type,name,status,description,duration,startTime,epic\n"
+                + "1,TASK,Задача,IN_PROGRESS,Описание,30,2024-03-01T10:15,\n"
+                + "2,EPIC,Эпик,NEW,,,,\n"
+                + "3,SUBTASK,Подзадача,DONE,Описание,45,2024-03-01T11:00:05.123,2\r\n"
+                + "4,TASK,Без времени,NEW,Описание,,,");
+
+        assertEquals(4, loaded.size(), "Должны быть прочитаны все строки, включая последнюю без перевода строки");
+        Task task = loaded.get(0);
+        assertEquals("Задача", task.getName(), "Название не совпадает");
+        assertEquals(Status.IN_PROGRESS, task.getStatus(), "Статус не совпадает");
+        assertEquals(Duration.ofMinutes(30), task.getDuration(), "Продолжительность не совпадает");
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 15), task.getStartTime(), "Время начала не совпадает");
+        assertTrue(loaded.get(1) instanceof Epic, "Ожидался эпик");
+        Subtask subtask = (Subtask) loaded.get(2);
+        assertEquals(2, subtask.getEpicId(), "Связь с эпиком не совпадает");
+        assertEquals(LocalDateTime.of(2024, 3, 1, 11, 0, 5, 123_000_000), subtask.getStartTime(),
+                "Дробные секунды не совпадают");
+        assertNull(loaded.get(3).getDuration(), "Пустая продолжительность должна остаться пустой");
+        assertNull(loaded.get(3).getStartTime(), "Пустое время начала должно остаться пустым");
+    }
+
+    @Test
+    @DisplayName("Строки, пересекающие границу буфера чтения, разбираются корректно")
+    void shouldParseLinesAcrossBufferBoundaries() throws IOException {
+        StringBuilder content = new StringBuilder("id,type,name,status,description,duration,startTime,epic\n");
+        String longDescription = "д".repeat(100_000);
+        for (int i = 1; i <= 5_000; i++) {
+            String description = i == 2_500 ? longDescription : "Описание " + i;
+            content.append(i).append(",TASK,Задача ").append(i).append(",NEW,").append(description)
+                    .append(",15,2024-01-01T00:00,\n");
+        }
+
+        List<Task> loaded = read(content.toString());
+
+        assertEquals(5_000, loaded.size(), "Количество задач не совпадает");
+        for (int i = 0; i < loaded.size(); i++) {
+            assertEquals(i + 1, loaded.get(i).getId(), "Идентификаторы должны идти по порядку");
+        }
+        assertEquals(longDescription, loaded.get(2_499).getDescription(), "Длинное описание повреждено");
+    }
+
+    @Test
+    @DisplayName("Некорректная строка приводит к ManagerSaveException")
+    void shouldRejectMalformedLine() {
+        assertThrows(ManagerSaveException.class,
+                () -> read("id,type,name,status,description,duration,startTime,epic\n1,TASK,Задача,UNKNOWN,,,,\n"),
+                "Неизвестный статус должен приводить к ошибке загрузки");
+        assertThrows(ManagerSaveException.class,
+                () -> read("id,type,name,status,description,duration,startTime,epic\n1,SUBTASK,Задача,NEW,,,\n"),
+                "Подзадача без эпика должна приводить к ошибке загрузки");
+    }
+
+    @Test
+    @DisplayName("Параллельный разбор возвращает те же сущности в том же порядке, что и последовательный")
+    void shouldParseInParallelInFileOrder() throws IOException {
+        StringBuilder content = new StringBuilder("id,type,name,status,description,duration,startTime,epic\n");
+        for (int i = 1; i <= 30_000; i++) {
+            content.append(i).append(i % 3 == 0 ? ",EPIC,Эпик " : ",TASK,Задача ").append(i)
+                    .append(",NEW,Описание ").append(i).append(",10,2024-01-01T00:00,\n");
+        }
+        File file = File.createTempFile("snapshot", ".csv");
+        Files.writeString(file.toPath(), content.toString(), StandardCharsets.UTF_8);
+
+        List<Task> sequential = new ArrayList<>();
+        CsvSnapshotReader.read(file, sequential::add);
+        List<Task> parallel = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CsvSnapshotReader.readParallel(file, pool, parallel::add);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(sequential.size(), parallel.size(), "Количество сущностей не совпадает");
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getId(), parallel.get(i).getId(), "Порядок сущностей нарушен");
+            assertEquals(sequential.get(i).getName(), parallel.get(i).getName(), "Название не совпадает");
+        }
+    }
+}
@@ -2,13 +2,24 @@ package tracker.service;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import tracker.entity.Epic;
 import tracker.entity.Status;
+import tracker.entity.Subtask;
 import tracker.entity.Task;
+import tracker.exceptions.ManagerSaveException;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -65,4 +76,296 @@ class FileBackedTaskManagerTest {
         assertTrue(manager.getAllEpics().isEmpty(), "Список эпиков должен быть пустым");
         assertTrue(manager.getAllSubtasks().isEmpty(), "Список подзадач должен быть пустым");
     }
-}
\ No newline at end of file
+
+    @DisplayName("Двоичный снимок сохраняет и восстанавливает задачи, эпики и подзадачи")
+    @Test
+    void shouldSaveAndLoadBinarySnapshot() throws IOException {
+        File file = File.createTempFile("tasks", ".bin");
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, SnapshotFormat.BINARY);
+        Task task = manager.createTask("Задача, с запятой", "Описание", Status.IN_PROGRESS,
+                Duration.ofSeconds(90), start);
+        Epic epic = manager.createEpic("Эпик", "Описание эпика");
+        Subtask subtask = manager.createSubtask("Подзадача", "", Status.DONE, epic.getId(),
+                null, null);
+
+        assertEquals(SnapshotFormat.BINARY, FileBackedTaskManager.detectFormat(file),
+                "Файл должен начинаться с сигнатуры двоичного снимка");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        Task loadedTask = loaded.getTask(task.getId());
+        assertEquals(task.getName(), loadedTask.getName(), "Название задачи не совпадает");
+        assertEquals(Duration.ofSeconds(90), loadedTask.getDuration(), "Продолжительность не совпадает");
+        assertEquals(start, loadedTask.getStartTime(), "Время начала должно сохраняться без потерь");
+        assertEquals(Status.DONE, loaded.getEpic(epic.getId()).getStatus(), "Статус эпика не восстановлен");
+        assertEquals(epic.getId(), loaded.getSubtask(subtask.getId()).getEpicId(), "Связь с эпиком не совпадает");
+        assertNull(loaded.getSubtask(subtask.getId()).getStartTime(), "Пустое время начала должно остаться пустым");
+    }
+
+    @DisplayName("Снимок преобразуется из CSV в двоичный формат и обратно без потери данных")
+    @Test
+    void shouldConvertSnapshotBetweenFormats() throws IOException {
+        File csv = File.createTempFile("tasks", ".csv");
+        File binary = File.createTempFile("tasks", ".bin");
+        File csvAgain = File.createTempFile("tasks", ".csv");
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(csv);
+        Epic epic = manager.createEpic("Эпик", "Описание");
+        manager.createSubtask("Подзадача", "Описание", Status.IN_PROGRESS, epic.getId(),
+                Duration.ofMinutes(45), LocalDateTime.of(2024, 1, 1, 9, 0));
+        manager.createTask("Задача", "Описание", Status.NEW, null, null);
+
+        FileBackedTaskManager.convertSnapshot(csv, binary, SnapshotFormat.BINARY);
+        assertEquals(SnapshotFormat.BINARY, FileBackedTaskManager.detectFormat(binary), "Ожидался двоичный снимок");
+        FileBackedTaskManager.convertSnapshot(binary, csvAgain, SnapshotFormat.CSV);
+
+        assertEquals(Files.readString(csv.toPath()), Files.readString(csvAgain.toPath()),
+                "После двойного преобразования CSV должен совпадать с исходным");
+    }
+
+    @DisplayName("Параллельная загрузка восстанавливает связи эпиков и список приоритетов")
+    @Test
+    void shouldLoadFromFileInParallel() throws IOException {
+        File file = File.createTempFile("tasks", ".csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        Epic epic = manager.createEpic("Эпик", "Описание");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 2_000; i++) {
+            manager.createSubtask("Подзадача " + i, "Описание", Status.DONE, epic.getId(),
+                    Duration.ofMinutes(10), start.plusMinutes(i * 10L));
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFileParallel(file, 4);
+
+        assertEquals(2_000, loaded.getAllSubtasks().size(), "Количество подзадач не совпадает");
+        assertEquals(2_000, loaded.getEpicSubtasks(epic.getId()).size(), "Подзадачи не привязаны к эпику");
+        assertEquals(2_000, loaded.getPrioritizedTasks().size(), "Список приоритетов не восстановлен");
+        assertEquals(Status.DONE, loaded.getEpic(epic.getId()).getStatus(), "Статус эпика не восстановлен");
+    }
+
+    @DisplayName("В режиме журнала операции восстанавливаются из снимка и журнала")
+    @Test
+    void shouldRestoreStateFromJournal() throws IOException {
+        File file = File.createTempFile("tasks", ".csv");
+        File journal = File.createTempFile("tasks", ".journal");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journal, 100);
+        Task task = manager.createTask("Task", "Description", Status.NEW, Duration.ofMinutes(30), start);
+        Task removed = manager.createTask("Removed", "Description", Status.NEW, null, null);
+        Epic epic = manager.createEpic("Epic", "Description");
+        Subtask subtask = manager.createSubtask("Subtask", "Description", Status.NEW, epic.getId(),
+                Duration.ofMinutes(15), start.plusHours(1));
+        manager.updateSubtask(new Subtask(subtask.getId(), "Subtask", "Description", Status.DONE, epic.getId(),
+                Duration.ofMinutes(15), start.plusHours(1)));
+        manager.deleteTask(removed.getId());
+        manager.close();
+
+        assertEquals(6, Files.readAllLines(journal.toPath()).size(), "Каждая операция должна давать одну запись");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, journal, 100);
+        assertEquals(1, loaded.getAllTasks().size(), "Удалённая задача не должна восстанавливаться");
+        assertEquals(task.getStartTime(), loaded.getTask(task.getId()).getStartTime());
+        assertEquals(Status.DONE, loaded.getSubtask(subtask.getId()).getStatus());
+        assertEquals(Status.DONE, loaded.getEpic(epic.getId()).getStatus(), "Статус эпика должен пересчитываться");
+        assertEquals(2, loaded.getPrioritizedTasks().size(), "Список приоритетов должен восстанавливаться");
+        loaded.close();
+    }
+
+    @DisplayName("Снимок записывается раз в заданное число операций, а журнал очищается")
+    @Test
+    void shouldTruncateJournalAfterSnapshot() throws IOException {
+        File file = File.createTempFile("tasks", ".csv");
+        File journal = File.createTempFile("tasks", ".journal");
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journal, 3);
+        for (int i = 0; i < 5; i++) {
+            manager.createTask("Task " + i, "Description", Status.NEW, null, null);
+        }
+        manager.close();
+
+        assertEquals(2, Files.readAllLines(journal.toPath()).size(), "В журнале должны остаться записи после снимка");
+        assertEquals(4, Files.readAllLines(file.toPath()).size(), "Снимок должен содержать заголовок и три задачи");
+        assertEquals(5, FileBackedTaskManager.loadFromFile(file, journal, 3).getAllTasks().size());
+    }
+
+    @DisplayName("Журнал очищается только после синхронизации снимка и каталога с диском")
+    @Test
+    void shouldSyncSnapshotBeforeTruncatingJournal() throws IOException {
+        File file = File.createTempFile("tasks", ".csv");
+        File journal = File.createTempFile("tasks", ".journal");
+        List<String> steps = Collections.synchronizedList(new ArrayList<>());
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journal, 2) {
+            @Override
+            void syncFile(FileChannel channel) throws IOException {
+                steps.add(describeStep("file", file, journal));
+                super.syncFile(channel);
+            }
+
+            @Override
+            void syncDirectory(Path directory) {
+                steps.add(describeStep("dir", file, journal));
+                super.syncDirectory(directory);
+            }
+        };
+        steps.clear();
+        manager.createTask("Task 1", "Description", Status.NEW, null, null);
+        manager.createTask("Task 2", "Description", Status.NEW, null, null);
+
+        // Временный снимок синхронизируется до замены основного, каталог - после; журнал всё это время цел
+        assertEquals(List.of("file snapshot=1 journal=2", "dir snapshot=3 journal=2"), steps,
+                "Неверный порядок шагов снимка");
+        assertEquals(0, journal.length(), "После снимка журнал должен быть очищен");
+        manager.close();
+    }
+
+    private static String describeStep(String step, File file, File journal) {
+        try {
+            return step + " snapshot=" + Files.readAllLines(file.toPath()).size()
+                    + " journal=" + Files.readAllLines(journal.toPath()).size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DisplayName("Оборванная при сбое запись журнала отбрасывается при восстановлении")
+    @Test
+    void shouldRecoverFromTornJournalRecord() throws IOException {
+        File file = File.createTempFile("tasks", ".csv");
+        File journal = File.createTempFile("tasks", ".journal");
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journal, 100);
+        Task first = manager.createTask("First", "Description", Status.NEW, null, null);
+        Task second = manager.createTask("Second", "Description", Status.NEW, null, null);
+        manager.close();
+
+        // Имитируем сбой посреди записи последней операции
+        try (RandomAccessFile raf = new RandomAccessFile(journal, "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+
+        FileBackedTaskManager recovered = FileBackedTaskManager.loadFromFile(file, journal, 100);
+        assertNotNull(recovered.getTask(first.getId()), "Целая запись должна быть применена");
+        assertNull(recovered.getTask(second.getId()), "Оборванная запись должна быть отброшена");
+
+        // После восстановления журнал продолжает работать с целой границы записи
+        Task third = recovered.createTask("Third", "Description", Status.NEW, null, null);
+        recovered.close();
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file, journal, 100);
+        assertEquals(2, reloaded.getAllTasks().size());
+        assertNotNull(reloaded.getTask(third.getId()));
+    }
+
+    @DisplayName("Асинхронный журнал объединяет операции в пакеты и сохраняет их после flush")
+    @Test
+    void shouldBatchOperationsInAsyncMode() throws IOException {
+        File file = File.createTempFile("tasks", ".csv");
+        File journal = File.createTempFile("tasks", ".journal");
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journal, 10_000,
+                Duration.ofMillis(50), 256);
+        for (int i = 0; i < 1_000; i++) {
+            manager.createTask("Task " + i, "Description", Status.NEW, null, null);
+        }
+        manager.flush();
+
+        assertEquals(1_000, Files.readAllLines(journal.toPath()).size(), "После flush все записи должны быть на диске");
+        PersistenceStats stats = manager.getPersistenceStats();
+        assertEquals(1_000, stats.getRecords());
+        assertTrue(stats.getBatches() < 1_000, "Записи должны объединяться в пакеты: " + stats);
+        assertTrue(stats.getMaxBatchSize() <= 256, "Размер пакета не должен превышать заданный: " + stats);
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, journal, 10_000,
+                Duration.ofMillis(50), 256);
+        assertEquals(1_000, loaded.getAllTasks().size());
+        loaded.close();
+    }
+
+    @DisplayName("Снимок в асинхронном режиме записывается фоновым потоком в порядке операций")
+    @Test
+    void shouldWriteSnapshotsInAsyncMode() throws IOException {
+        File file = File.createTempFile("tasks", ".csv");
+        File journal = File.createTempFile("tasks", ".journal");
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journal, 4, Duration.ofMillis(5), 16);
+        for (int i = 0; i < 10; i++) {
+            manager.createTask("Task " + i, "Description", Status.NEW, null, null);
+        }
+        manager.close();
+
+        assertEquals(2, Files.readAllLines(journal.toPath()).size(), "В журнале должны остаться записи после снимка");
+        assertEquals(9, Files.readAllLines(file.toPath()).size(), "Снимок должен содержать заголовок и восемь задач");
+        assertEquals(10, FileBackedTaskManager.loadFromFile(file, journal, 4).getAllTasks().size());
+    }
+
+    @DisplayName("После прерывания или Error фонового потока flush сообщает об ошибке, а не об успешной записи")
+    @Test
+    void shouldReportAbnormalWriterExitOnFlush() throws IOException {
+        File interruptedFile = File.createTempFile("tasks", ".journal");
+        AsyncTaskJournal interrupted = new AsyncTaskJournal(interruptedFile, Duration.ofMillis(1), 16);
+        // Снимок выполняется фоновым потоком: прерываем его изнутри, следующее ожидание очереди завершится
+        interrupted.checkpoint(() -> Thread.currentThread().interrupt());
+        assertThrows(ManagerSaveException.class, interrupted::flush, "Прерванная запись не должна считаться успешной");
+        assertThrows(ManagerSaveException.class, () -> interrupted.append("P,1"), "Журнал должен быть непригоден");
+
+        File failedFile = File.createTempFile("tasks", ".journal");
+        AsyncTaskJournal failed = new AsyncTaskJournal(failedFile, Duration.ofMillis(1), 16);
+        failed.append("P,1");
+        failed.checkpoint(() -> {
+            throw new StackOverflowError("Сбой при записи снимка");
+        });
+        ManagerSaveException error = assertThrows(ManagerSaveException.class, failed::flush,
+                "Error фонового потока должен передаваться в flush");
+        assertTrue(error.getCause() instanceof StackOverflowError, "Причина должна сохраняться");
+    }
+
+    @DisplayName("Пакет применяется целиком одной записью на диск либо не применяется вовсе")
+    @Test
+    void shouldApplyBatchAtomicallyAndPersistOnce() throws IOException {
+        File file = File.createTempFile("tasks", ".csv");
+        File journal = File.createTempFile("tasks", ".journal");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journal, 10_000);
+        Task existing = manager.createTask("Existing", "Description", Status.NEW, Duration.ofMinutes(30), start);
+        Epic epic = manager.createEpic("Epic", "Description");
+        List<Subtask> drafts = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            drafts.add(new Subtask(0, "Subtask " + i, "Description", Status.DONE, epic.getId(),
+                    Duration.ofMinutes(30), start.plusHours(i + 1)));
+        }
+        List<Subtask> created = manager.createSubtasks(drafts);
+
+        assertEquals(1_000, created.size(), "Все подзадачи пакета должны быть созданы");
+        assertEquals(Status.DONE, manager.getEpic(epic.getId()).getStatus(), "Статус эпика должен учитывать пакет");
+        assertEquals(3, manager.getPersistenceStats().getBatches(), "Пакет должен записываться одной операцией");
+
+        // Вторая задача пакета пересекается с первой: пакет не применяется, освобождённое время не теряется
+        List<BatchOperation> conflicting = List.of(
+                BatchOperation.delete(existing.getId()),
+                BatchOperation.create(new Task(0, "A", "Description", Status.NEW, Duration.ofMinutes(20), start)),
+                BatchOperation.create(new Task(0, "B", "Description", Status.NEW, Duration.ofMinutes(20),
+                        start.plusMinutes(10))));
+        assertThrows(ManagerSaveException.class, () -> manager.applyBatch(conflicting));
+        assertNotNull(manager.getTask(existing.getId()), "Удаление из отклонённого пакета не должно применяться");
+        assertTrue(manager.hasTimeConflict(new Task(0, "Probe", "Description", Status.NEW,
+                Duration.ofMinutes(5), start)), "Интервал существующей задачи должен остаться в индексе");
+        assertEquals(2, manager.getAllTasks().size() + manager.getAllEpics().size(),
+                "Задачи отклонённого пакета не должны создаваться");
+
+        // Удаление в начале пакета освобождает время для создаваемой задачи
+        List<Task> replaced = manager.applyBatch(List.of(
+                BatchOperation.delete(existing.getId()),
+                BatchOperation.create(new Task(0, "A", "Description", Status.NEW, Duration.ofMinutes(20), start))));
+        assertEquals(start, replaced.get(0).getStartTime());
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, journal, 10_000);
+        assertEquals(1_000, loaded.getEpicSubtasks(epic.getId()).size(), "Пакет должен восстанавливаться из журнала");
+        assertEquals(List.of(replaced.get(0).getId()), loaded.getAllTasks().stream().map(Task::getId).toList());
+        loaded.close();
+    }
+}
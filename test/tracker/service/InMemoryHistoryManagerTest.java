@@ -6,7 +6,9 @@ import tracker.entity.Task;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -89,4 +91,48 @@ class InMemoryHistoryManagerTest {
         assertEquals(1, tasks.size());
         assertEquals(task2.getId(), tasks.get(0).getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldEvictOldestWhenCapacityReached() {
+        HistoryManager history = Managers.getDefaultHistory(3);
+        for (int id = 1; id <= 5; id++) {
+            history.add(new Task(id, "Task" + id, "Desc", Status.NEW, null, null));
+        }
+        // Повторный просмотр переносит задачу в конец и защищает её от вытеснения
+        history.add(new Task(3, "Task3", "Desc", Status.NEW, null, null));
+        history.add(new Task(6, "Task6", "Desc", Status.NEW, null, null));
+
+        List<Integer> ids = history.getHistory().stream().map(Task::getId).toList();
+        assertEquals(List.of(5, 3, 6), ids, "Должны остаться три последних просмотра");
+    }
+
+    @Test
+    void shouldMatchReferenceListUnderRandomOperations() {
+        HistoryManager history = Managers.getDefaultHistory(50);
+        List<Integer> expected = new ArrayList<>();
+        java.util.Random random = new Random(42);
+
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                history.remove(id);
+                expected.remove((Integer) id);
+            } else {
+                history.add(new Task(id, "Task", "Desc", Status.NEW, null, null));
+                expected.remove((Integer) id);
+                expected.add(id);
+                if (expected.size() > 50) {
+                    expected.remove(0);
+                }
+            }
+        }
+
+        assertEquals(expected, history.getHistory().stream().map(Task::getId).toList(),
+                "История расходится с эталонной моделью");
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> Managers.getDefaultHistory(0));
+    }
+}
@@ -19,4 +19,11 @@ class ManagersTest {
         assertTrue(history.getHistory().isEmpty(), "Новая история должна быть пустой");
     }
 
+    @Test
+    void getConcurrentReturnsThreadSafeManager() {
+        TaskManager manager = Managers.getConcurrent();
+        assertTrue(manager instanceof ConcurrentTaskManager, "Ожидался потокобезопасный менеджер");
+        assertTrue(manager.getAllTasks().isEmpty(), "Новый менеджер должен быть пустым");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package tracker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.Status;
+import tracker.entity.Task;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleIndexTest {
+    private final LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private Task task(int id, int startOffsetMinutes) {
+        return new Task(id, "Task" + id, "Desc", Status.NEW, null, base.plusMinutes(startOffsetMinutes));
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Задачи с одинаковым временем начала не вытесняют друг друга")
+    void shouldKeepTasksWithEqualStartTimes() {
+        ScheduleIndex index = new ScheduleIndex();
+        index.put(task(3, 0));
+        index.put(task(1, 0));
+        index.put(task(2, 0));
+
+        assertEquals(List.of(1, 2, 3), ids(index.toList()), "При равном начале задачи упорядочены по id");
+        index.remove(2);
+        assertEquals(List.of(1, 3), ids(index.toList()), "Удаляется только задача с указанным id");
+    }
+
+    @Test
+    @DisplayName("Удаление по id работает после изменения времени у самого объекта задачи")
+    void shouldRemoveTaskAfterItsStartTimeWasMutated() {
+        ScheduleIndex index = new ScheduleIndex();
+        Task mutable = task(1, 30);
+        index.put(mutable);
+        index.put(task(2, 60));
+        mutable.setStartTime(base.plusMinutes(90));
+
+        ScheduleIndex.Key removed = index.remove(1);
+        assertNotNull(removed, "Задача должна быть найдена по id");
+        assertEquals(base.plusMinutes(30), removed.start, "Ключ хранит время на момент добавления");
+        assertEquals(List.of(2), ids(index.toList()), "В индексе должна остаться только вторая задача");
+    }
+
+    @Test
+    @DisplayName("Случайные операции совпадают с эталонной моделью")
+    void shouldMatchReferenceModelUnderRandomOperations() {
+        Random random = new Random(16);
+        ScheduleIndex index = new ScheduleIndex();
+        Map<Integer, Task> model = new HashMap<>();
+        Comparator<Task> order = Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId);
+
+        for (int step = 0; step < 20_000; step++) {
+            int id = 1 + random.nextInt(300);
+            int operation = random.nextInt(10);
+            if (operation < 3) {
+                index.remove(id);
+                model.remove(id);
+            } else if (operation < 9) {
+                // Узкий диапазон времени, чтобы часто получались совпадающие начала
+                Task task = task(id, random.nextInt(50));
+                index.put(task);
+                model.put(id, task);
+            } else {
+                Task stored = model.get(id);
+                if (stored != null) {
+                    // Изменение объекта после добавления не должно влиять на индекс
+                    stored.setStartTime(base.minusDays(1));
+                    index.remove(id);
+                    model.remove(id);
+                }
+            }
+
+            if (step % 50 == 0) {
+                List<Task> expected = model.values().stream().sorted(order).toList();
+                assertEquals(ids(expected), ids(index.toList()), "Порядок расходится с моделью на шаге " + step);
+                assertEquals(model.size(), index.size(), "Размер расходится с моделью на шаге " + step);
+
+                LocalDateTime from = base.plusMinutes(random.nextInt(50));
+                LocalDateTime to = from.plusMinutes(random.nextInt(20));
+                int limit = 1 + random.nextInt(30);
+                List<Integer> expectedRange = expected.stream()
+                        .filter(task -> !task.getStartTime().isBefore(from) && task.getStartTime().isBefore(to))
+                        .limit(limit).map(Task::getId).toList();
+                assertEquals(expectedRange, ids(index.range(from, to, limit)), "Интервал расходится на шаге " + step);
+
+                if (!expected.isEmpty()) {
+                    Task cursor = expected.get(random.nextInt(expected.size()));
+                    List<Integer> expectedAfter = expected.stream()
+                            .filter(task -> order.compare(task, cursor) > 0)
+                            .limit(limit).map(Task::getId).toList();
+                    assertEquals(expectedAfter, ids(index.after(cursor.getStartTime(), cursor.getId(), null, limit)),
+                            "Страница после курсора расходится на шаге " + step);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package tracker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.Status;
+import tracker.entity.Task;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionHistoryManagerTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    private SessionHistoryManager sessions(int maxSessions) {
+        return new SessionHistoryManager(Managers::getDefaultHistory, Duration.ofMinutes(10), maxSessions,
+                clock::get);
+    }
+
+    private static Task task(int id) {
+        return new Task(id, "Task" + id, "Desc", Status.NEW, null, null);
+    }
+
+    private static List<Integer> historyOf(SessionHistoryManager sessions, String sessionId) {
+        sessions.bind(sessionId);
+        try {
+            return sessions.getHistory().stream().map(Task::getId).toList();
+        } finally {
+            sessions.unbind();
+        }
+    }
+
+    private static void view(SessionHistoryManager sessions, String sessionId, int taskId) {
+        sessions.bind(sessionId);
+        try {
+            sessions.add(task(taskId));
+        } finally {
+            sessions.unbind();
+        }
+    }
+
+    @Test
+    @DisplayName("Каждая сессия видит только свои просмотры, удаление задачи затрагивает все сессии")
+    void shouldIsolateSessions() {
+        SessionHistoryManager sessions = sessions(10);
+        view(sessions, "alice", 1);
+        view(sessions, "alice", 2);
+        view(sessions, "bob", 2);
+        sessions.add(task(3));
+
+        assertEquals(List.of(1, 2), historyOf(sessions, "alice"), "История первой сессии не совпадает");
+        assertEquals(List.of(2), historyOf(sessions, "bob"), "История второй сессии не совпадает");
+        assertEquals(List.of(3), sessions.getHistory().stream().map(Task::getId).toList(),
+                "Без привязки используется сессия по умолчанию");
+
+        sessions.remove(2);
+        assertEquals(List.of(1), historyOf(sessions, "alice"), "Удалённая задача должна исчезнуть из всех сессий");
+        assertTrue(historyOf(sessions, "bob").isEmpty(), "Удалённая задача должна исчезнуть из всех сессий");
+    }
+
+    @Test
+    @DisplayName("Сессии без обращений дольше idleTimeout удаляются")
+    void shouldEvictIdleSessions() {
+        SessionHistoryManager sessions = sessions(10);
+        view(sessions, "idle", 1);
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        view(sessions, "active", 2);
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+        view(sessions, "active", 3);
+
+        assertEquals(1, sessions.getSessionCount(), "Бездействующая сессия должна быть удалена");
+        assertTrue(historyOf(sessions, "idle").isEmpty(), "После удаления сессия начинается с пустой истории");
+    }
+
+    @Test
+    @DisplayName("При превышении лимита удаляется сессия с самым давним обращением")
+    void shouldEvictLeastRecentlyUsedSessionOverLimit() {
+        SessionHistoryManager sessions = sessions(2);
+        view(sessions, "first", 1);
+        clock.incrementAndGet();
+        view(sessions, "second", 2);
+        clock.incrementAndGet();
+        view(sessions, "first", 3);
+        clock.incrementAndGet();
+        view(sessions, "third", 4);
+
+        assertEquals(2, sessions.getSessionCount(), "Количество сессий должно быть ограничено");
+        assertEquals(List.of(1, 3), historyOf(sessions, "first"), "Недавно использованная сессия должна сохраниться");
+        assertEquals(List.of(4), historyOf(sessions, "third"), "Новая сессия должна сохраниться");
+    }
+
+    @Test
+    @DisplayName("Вытесняется сессия с самым давним обращением, даже если время обращений совпадает")
+    void shouldEvictByAccessOrder() {
+        SessionHistoryManager sessions = sessions(3);
+        view(sessions, "first", 1);
+        view(sessions, "second", 2);
+        view(sessions, "third", 3);
+        view(sessions, "first", 4);
+        view(sessions, "fourth", 5);
+
+        assertEquals(3, sessions.getSessionCount(), "Количество сессий должно быть ограничено");
+        assertEquals(List.of(1, 4), historyOf(sessions, "first"), "Недавно использованная сессия должна сохраниться");
+        assertTrue(historyOf(sessions, "second").isEmpty(), "Должна вытесняться сессия с самым давним обращением");
+    }
+
+    @Test
+    @DisplayName("Изменение просмотренной сущности на месте меняет версии сессий")
+    void shouldChangeVersionsWhenEntityChanges() {
+        SessionHistoryManager sessions = sessions(10);
+        view(sessions, "alice", 1);
+        sessions.bind("alice");
+        try {
+            long before = sessions.getVersion();
+            sessions.changed(1);
+            assertTrue(sessions.getVersion() > before, "Версия сессии должна смениться");
+        } finally {
+            sessions.unbind();
+        }
+    }
+}
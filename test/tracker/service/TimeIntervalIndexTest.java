@@ -0,0 +1,130 @@
+package tracker.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIntervalIndexTest {
+    private final LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("Пересечение находится, а соприкасающиеся интервалы не считаются пересечением")
+    void shouldDetectOverlapsWithHalfOpenIntervals() {
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        index.add(1, base, base.plusMinutes(30));
+        index.add(2, base.plusHours(1), base.plusHours(2));
+
+        assertTrue(index.overlaps(base.plusMinutes(10), base.plusMinutes(20), 0));
+        assertTrue(index.overlaps(base.plusMinutes(50), base.plusMinutes(70), 0));
+        assertFalse(index.overlaps(base.plusMinutes(30), base.plusHours(1), 0),
+                "Интервал между задачами не должен пересекаться с ними");
+        assertFalse(index.overlaps(base.minusMinutes(30), base, 0));
+    }
+
+    @Test
+    @DisplayName("Интервал самой проверяемой задачи не учитывается")
+    void shouldIgnoreExcludedId() {
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        index.add(1, base, base.plusMinutes(30));
+
+        assertFalse(index.overlaps(base.plusMinutes(10), base.plusMinutes(40), 1));
+        assertTrue(index.overlaps(base.plusMinutes(10), base.plusMinutes(40), 2));
+    }
+
+    @Test
+    @DisplayName("Удалённый интервал больше не даёт пересечений")
+    void shouldForgetRemovedInterval() {
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        index.add(1, base, base.plusMinutes(30));
+        index.add(2, base, base.plusMinutes(10));
+
+        assertTrue(index.remove(1, base));
+        assertFalse(index.remove(1, base), "Повторное удаление не должно находить интервал");
+        assertEquals(1, index.size());
+        assertFalse(index.overlaps(base.plusMinutes(15), base.plusMinutes(20), 0));
+        assertTrue(index.overlaps(base.plusMinutes(5), base.plusMinutes(20), 0));
+    }
+
+    @Test
+    @DisplayName("Результаты индекса совпадают с линейным перебором")
+    void shouldMatchLinearScan() {
+        Random random = new Random(42);
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        List<long[]> intervals = new ArrayList<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            if (!intervals.isEmpty() && random.nextInt(4) == 0) {
+                long[] removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(index.remove((int) removed[0], base.plusMinutes(removed[1])));
+            } else {
+                long start = random.nextInt(100_000);
+                long[] interval = {step + 1, start, start + random.nextInt(120)};
+                intervals.add(interval);
+                index.add(step + 1, base.plusMinutes(interval[1]), base.plusMinutes(interval[2]));
+            }
+
+            long queryStart = random.nextInt(100_000);
+            long queryEnd = queryStart + 1 + random.nextInt(120);
+            boolean expected = intervals.stream()
+                    .anyMatch(interval -> queryStart < interval[2] && interval[1] < queryEnd);
+            assertEquals(expected, index.overlaps(base.plusMinutes(queryStart), base.plusMinutes(queryEnd), 0),
+                    "Расхождение с линейным перебором на шаге " + step);
+        }
+        assertEquals(intervals.size(), index.size());
+    }
+
+    @Test
+    @DisplayName("Свободный интервал находится между занятыми и учитывает границу before")
+    void shouldFindEarliestFreeSlot() {
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        index.add(1, base, base.plusMinutes(30));
+        index.add(2, base.plusMinutes(40), base.plusMinutes(60));
+        index.add(3, base.plusMinutes(60), base.plusMinutes(90));
+
+        assertEquals(base.plusMinutes(30), index.findFreeSlot(base, Duration.ofMinutes(10), null),
+                "Промежуток ровно нужной длины должен подойти");
+        assertEquals(base.plusMinutes(90), index.findFreeSlot(base, Duration.ofMinutes(15), null),
+                "Короткие промежутки должны пропускаться");
+        assertEquals(base.plusMinutes(95), index.findFreeSlot(base.plusMinutes(95), Duration.ofMinutes(15), null),
+                "Свободное время after должно возвращаться как есть");
+        assertNull(index.findFreeSlot(base, Duration.ofMinutes(15), base.plusMinutes(100)),
+                "Интервал, выходящий за before, не подходит");
+    }
+
+    @Test
+    @DisplayName("Поиск свободного интервала совпадает с поминутным перебором")
+    void shouldFindFreeSlotLikeMinuteByMinuteSearch() {
+        Random random = new Random(17);
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        List<long[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            long start = random.nextInt(5_000);
+            long[] interval = {i + 1, start, start + 1 + random.nextInt(60)};
+            intervals.add(interval);
+            index.add(i + 1, base.plusMinutes(interval[1]), base.plusMinutes(interval[2]));
+        }
+
+        for (int query = 0; query < 500; query++) {
+            long after = random.nextInt(5_000);
+            long length = 1 + random.nextInt(40);
+            long expected = after;
+            while (true) {
+                long candidate = expected;
+                if (intervals.stream().noneMatch(interval -> candidate < interval[2] && interval[1] < candidate + length)) {
+                    break;
+                }
+                expected++;
+            }
+            assertEquals(base.plusMinutes(expected),
+                    index.findFreeSlot(base.plusMinutes(after), Duration.ofMinutes(length), null),
+                    "Расхождение с перебором для запроса " + query);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLogTest {
+
+    @Test
+    @DisplayName("Выводятся сообщения не ниже заданного уровня с подставленными аргументами")
+    void shouldWriteEnabledLevelsWithArguments() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AsyncLog log = new AsyncLog(LogLevel.INFO, 16, new PrintStream(bytes, true, StandardCharsets.UTF_8))) {
+            Logger logger = new Logger("Тест", log);
+            assertFalse(logger.isDebugEnabled(), "DEBUG должен быть отключён на уровне INFO");
+
+            logger.debug("Отладка {}", 1);
+            logger.info("Эпик {} создан за {} мс", 42, 7);
+            logger.error("Сбой", new IllegalStateException("причина"));
+            log.flush();
+
+            String output = bytes.toString(StandardCharsets.UTF_8);
+            assertFalse(output.contains("Отладка"), "Сообщение DEBUG не должно выводиться");
+            assertTrue(output.contains("INFO  [" + Thread.currentThread().getName() + "] Тест - Эпик 42 создан за 7 мс\n"),
+                    "Неверный формат сообщения: " + output);
+            assertTrue(output.contains("ERROR"), "Сообщение ERROR должно выводиться");
+            assertTrue(output.contains("java.lang.IllegalStateException: причина"), "Должен выводиться стек исключения");
+
+            log.setLevel(LogLevel.DEBUG);
+            logger.debug("Отладка {}", 2);
+            log.flush();
+            assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("Отладка 2"), "DEBUG включается на лету");
+        }
+    }
+
+    @Test
+    @DisplayName("При заполненном буфере сообщения отбрасываются без ожидания, их количество выводится")
+    void shouldDropWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream blockingSink = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                bytes.write(buffer, offset, length);
+            }
+        };
+
+        try (AsyncLog log = new AsyncLog(LogLevel.INFO, 4, new PrintStream(blockingSink, true, StandardCharsets.UTF_8))) {
+            Logger logger = new Logger("Тест", log);
+            logger.info("Первое");
+            // Фоновый поток занят выводом первого сообщения, буфер на 4 сообщения заполняется
+            assertTrue(writing.await(5, TimeUnit.SECONDS), "Фоновый поток должен начать вывод");
+            for (int i = 0; i < 7; i++) {
+                logger.info("Сообщение {}", i);
+            }
+            assertEquals(3, log.getDropped(), "Сообщения сверх размера буфера должны отбрасываться");
+
+            release.countDown();
+            log.flush();
+            String output = bytes.toString(StandardCharsets.UTF_8);
+            assertTrue(output.contains("Сообщение 3"), "Сообщения из буфера должны быть выведены");
+            assertFalse(output.contains("Сообщение 4"), "Отброшенные сообщения не выводятся");
+            assertTrue(output.contains("отброшено сообщений: 3"), "Должно выводиться количество отброшенных");
+        }
+    }
+}
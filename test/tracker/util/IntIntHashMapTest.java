@@ -0,0 +1,52 @@
+package tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntHashMapTest {
+
+    @Test
+    @DisplayName("Операции совпадают с HashMap при случайных вставках и удалениях")
+    void shouldMatchHashMap() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(1);
+
+        for (int step = 0; step < 200_000; step++) {
+            // Небольшой диапазон ключей даёт длинные цепочки коллизий и частые сдвиги при удалении
+            int key = random.nextInt(2_000) - 100;
+            if (random.nextBoolean()) {
+                int value = random.nextInt();
+                map.put(key, value);
+                expected.put(key, value);
+            } else {
+                Integer removed = expected.remove(key);
+                assertEquals(removed != null ? removed : -1, map.remove(key, -1), "Удалённое значение не совпадает");
+            }
+            assertEquals(expected.size(), map.size(), "Размер не совпадает");
+        }
+        for (int key = -100; key < 1_900; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value != null, map.containsKey(key), "Наличие ключа не совпадает: " + key);
+            assertEquals(value != null ? value : -1, map.get(key, -1), "Значение не совпадает: " + key);
+        }
+    }
+
+    @Test
+    @DisplayName("Ключ 0 хранится отдельно от пустых ячеек")
+    void shouldSupportZeroKey() {
+        IntIntHashMap map = new IntIntHashMap();
+        assertEquals(-1, map.get(0, -1), "Ключ 0 не должен присутствовать в пустой таблице");
+        map.put(0, 5);
+        assertEquals(5, map.get(0, -1), "Значение по ключу 0 не совпадает");
+        assertEquals(1, map.size(), "Размер должен учитывать ключ 0");
+        assertEquals(5, map.remove(0, -1), "Удалённое значение не совпадает");
+        assertTrue(map.isEmpty(), "Таблица должна быть пустой");
+    }
+}
@@ -0,0 +1,54 @@
+package tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Корзины покрывают диапазон без пропусков, погрешность не больше 1/16")
+    void bucketsShouldBeContiguousWithBoundedError() {
+        long previousUpper = -1;
+        for (int index = 0; index <= LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE); index++) {
+            long upper = LatencyHistogram.upperBound(index);
+            assertEquals(index, LatencyHistogram.indexOf(previousUpper + 1), "Нижняя граница корзины " + index);
+            assertEquals(index, LatencyHistogram.indexOf(upper), "Верхняя граница корзины " + index);
+            long lower = previousUpper + 1;
+            assertTrue(upper - lower <= Math.max(0, lower / 16), "Слишком широкая корзина " + index);
+            previousUpper = upper;
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE, previousUpper);
+    }
+
+    @Test
+    @DisplayName("Квантили и счётчики совпадают с точными значениями в пределах погрешности корзины")
+    void quantilesShouldMatchExactValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(7);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(Arrays.stream(values).sum(), histogram.getSum());
+        for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            long estimate = histogram.valueAtQuantile(quantile);
+            assertTrue(estimate >= exact && estimate <= exact + exact / 16 + 1,
+                    "Квантиль " + quantile + ": " + estimate + " вместо " + exact);
+        }
+        long below = Arrays.stream(values).filter(value -> value <= 1_000_000).count();
+        long counted = histogram.countAtOrBelow(1_000_000);
+        assertTrue(counted <= below && counted >= below - values.length / 100,
+                "Значений до 1 мс: " + counted + " вместо " + below);
+    }
+}
@@ -0,0 +1,66 @@
+package tracker.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tracker.entity.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTypeAdapterTest {
+    private final Gson gson = new GsonBuilder()
+            .registerTypeHierarchyAdapter(Task.class, new TaskTypeAdapter())
+            .create();
+
+    @Test
+    @DisplayName("Смешанный список сериализуется с полем type и читается обратно в нужные классы")
+    void shouldRoundTripPolymorphicList() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Epic epic = new Epic(1, "Эпик", "Описание");
+        Subtask subtask = new Subtask(2, "Подзадача", "Описание", Status.DONE, 1, Duration.ofMinutes(30), start);
+        epic.addSubtask(subtask);
+        Task task = new Task(3, "Задача", "Описание", Status.NEW, null, null);
+
+        String json = gson.toJson(List.of(task, subtask, epic));
+        JsonArray array = gson.fromJson(json, JsonArray.class);
+        assertEquals("TASK", array.get(0).getAsJsonObject().get("type").getAsString());
+        assertFalse(array.get(0).getAsJsonObject().has("startTime"), "Пустые поля не должны выводиться");
+        JsonObject subtaskJson = array.get(1).getAsJsonObject();
+        assertEquals("SUBTASK", subtaskJson.get("type").getAsString());
+        assertEquals(1_800_000, subtaskJson.get("duration").getAsLong(), "Продолжительность выводится в миллисекундах");
+        assertEquals("2024-01-01T09:00:00", subtaskJson.get("startTime").getAsString());
+        assertEquals(2, array.get(2).getAsJsonObject().get("subtaskIds").getAsJsonArray().get(0).getAsInt());
+
+        List<Task> restored = gson.fromJson(json, new TypeToken<List<Task>>() {
+        }.getType());
+        assertEquals(Task.class, restored.get(0).getClass());
+        assertEquals(Subtask.class, restored.get(1).getClass());
+        assertEquals(Epic.class, restored.get(2).getClass());
+        assertEquals(1, ((Subtask) restored.get(1)).getEpicId());
+        assertEquals(start, restored.get(1).getStartTime());
+        assertEquals(Duration.ofMinutes(30), restored.get(1).getDuration());
+    }
+
+    @Test
+    @DisplayName("Отсутствие обязательных полей и неверный статус дают ошибку разбора")
+    void shouldRejectIncompleteEntities() {
+        assertThrows(JsonSyntaxException.class,
+                () -> gson.fromJson("{\"name\": \"Задача\", \"status\": \"NEW\"}", Task.class),
+                "Без description задача не читается");
+        assertThrows(JsonSyntaxException.class,
+                () -> gson.fromJson("{\"name\": \"З\", \"description\": \"О\", \"status\": \"LATER\"}", Task.class),
+                "Неизвестный статус не читается");
+        Task task = gson.fromJson("{\"name\": \"З\", \"description\": \"О\", \"status\": \"new\", \"extra\": [1, {}]}",
+                Task.class);
+        assertEquals(Status.NEW, task.getStatus(), "Статус читается без учёта регистра, лишние поля пропускаются");
+    }
+}